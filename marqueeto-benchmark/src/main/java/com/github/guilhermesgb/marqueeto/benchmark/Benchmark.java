@@ -0,0 +1,75 @@
+package com.github.guilhermesgb.marqueeto.benchmark;
+
+import android.os.Debug;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+final class Benchmark {
+
+    interface Scenario {
+
+        void setUp();
+
+        void run(int iteration);
+
+    }
+
+    static final class Result {
+
+        final String name;
+        final int iterations;
+        final long meanNanos;
+        final long medianNanos;
+        final long allocationsPerOp;
+        final long bytesPerOp;
+
+        private Result(String name, int iterations, long meanNanos, long medianNanos,
+                       long allocationsPerOp, long bytesPerOp) {
+            this.name = name;
+            this.iterations = iterations;
+            this.meanNanos = meanNanos;
+            this.medianNanos = medianNanos;
+            this.allocationsPerOp = allocationsPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-28s %5d ops  mean %9.1f us  median %9.1f us  %6d allocs/op  %8d B/op",
+                    name, iterations, meanNanos / 1000f, medianNanos / 1000f, allocationsPerOp, bytesPerOp);
+        }
+
+    }
+
+    private Benchmark() {}
+
+    @SuppressWarnings("deprecation")
+    static Result measure(String name, int warmupIterations, int iterations, Scenario scenario, Runnable frame) {
+        scenario.setUp();
+        frame.run();
+        for (int iteration = 0; iteration < warmupIterations; iteration++) {
+            scenario.run(iteration);
+            frame.run();
+        }
+        final long[] samples = new long[iterations];
+        long totalNanos = 0;
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            final long start = System.nanoTime();
+            scenario.run(warmupIterations + iteration);
+            frame.run();
+            samples[iteration] = System.nanoTime() - start;
+            totalNanos += samples[iteration];
+        }
+        Debug.stopAllocCounting();
+        final long allocations = Debug.getThreadAllocCount();
+        final long bytes = Debug.getThreadAllocSize();
+        Arrays.sort(samples);
+        return new Result(name, iterations, totalNanos / iterations, samples[iterations / 2],
+                allocations / iterations, bytes / iterations);
+    }
+
+}
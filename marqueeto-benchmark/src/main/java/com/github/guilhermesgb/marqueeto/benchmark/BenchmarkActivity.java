@@ -0,0 +1,323 @@
+package com.github.guilhermesgb.marqueeto.benchmark;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.support.design.widget.TextInputLayout;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.ViewParent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.TextView;
+
+import com.github.guilhermesgb.marqueeto.LabelledMarqueeEditText;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class BenchmarkActivity extends Activity {
+
+    private static final String TAG = BenchmarkActivity.class.getSimpleName();
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int ITERATIONS = 200;
+    private static final String[] VALUES = {
+            "John Appleseed",
+            "12.345.678-9",
+            "A considerably longer value that does not fit in the field and has to scroll",
+            "SSP - SP",
+            ""
+    };
+
+    private final ArrayDeque<Runnable> mPendingScenarios = new ArrayDeque<>();
+    private final StringBuilder mReport = new StringBuilder();
+
+    private ViewGroup mHost;
+    private TextView mResults;
+    private LayoutInflater mInflater;
+    private Bitmap mFrameBitmap;
+    private Canvas mFrameCanvas;
+
+    private final Runnable mFrame = new Runnable() {
+        @Override
+        public void run() {
+            runFrame();
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_benchmark);
+        mHost = (ViewGroup) findViewById(R.id.benchmark_host);
+        mResults = (TextView) findViewById(R.id.benchmark_results);
+        mInflater = LayoutInflater.from(this);
+        enqueueScenarios();
+        mHost.post(new Runnable() {
+            @Override
+            public void run() {
+                runNextScenario();
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        mPendingScenarios.clear();
+        if (mFrameBitmap != null) {
+            mFrameBitmap.recycle();
+            mFrameBitmap = null;
+        }
+        super.onDestroy();
+    }
+
+    private void enqueueScenarios() {
+        enqueue("construction (inflate)", new Benchmark.Scenario() {
+
+            @Override
+            public void setUp() {}
+
+            @Override
+            public void run(int iteration) {
+                mInflater.inflate(R.layout.field_benchmark, mHost, false);
+            }
+
+        });
+        enqueue("construction (code)", new Benchmark.Scenario() {
+
+            @Override
+            public void setUp() {}
+
+            @Override
+            public void run(int iteration) {
+                new LabelledMarqueeEditText(BenchmarkActivity.this);
+            }
+
+        });
+        enqueue("setText (edit mode)", new FieldScenario(LabelledMarqueeEditText.MODE_EDIT) {
+
+            @Override
+            public void run(int iteration) {
+                mField.setText(VALUES[iteration % VALUES.length]);
+            }
+
+        });
+        enqueue("setText (marquee mode)", new FieldScenario(LabelledMarqueeEditText.MODE_MARQUEE) {
+
+            @Override
+            public void run(int iteration) {
+                mField.setText(VALUES[iteration % (VALUES.length - 1)]);
+            }
+
+        });
+        enqueue("setCustomStyle", new FieldScenario(LabelledMarqueeEditText.MODE_MARQUEE) {
+
+            @Override
+            public void run(int iteration) {
+                mField.setCustomStyle(iteration % 2 == 0
+                        ? R.style.BenchmarkCustomStyleError : R.style.BenchmarkCustomStyle);
+            }
+
+        });
+        enqueue("setErrorEnabled", new FieldScenario(LabelledMarqueeEditText.MODE_MARQUEE) {
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                mField.setError(VALUES[0]);
+            }
+
+            @Override
+            public void run(int iteration) {
+                mField.setErrorEnabled(iteration % 2 == 0);
+            }
+
+        });
+        enqueue("focus in/out", new FieldScenario(LabelledMarqueeEditText.MODE_EDIT) {
+
+            private EditText mEditText;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                mEditText = findEditText(mField);
+            }
+
+            @Override
+            public void run(int iteration) {
+                if (iteration % 2 == 0) {
+                    mEditText.requestFocus();
+                }
+                else {
+                    mEditText.clearFocus();
+                }
+            }
+
+        });
+        enqueue("inflate 9-field form", new Benchmark.Scenario() {
+
+            @Override
+            public void setUp() {}
+
+            @Override
+            public void run(int iteration) {
+                mInflater.inflate(R.layout.form_benchmark, mHost, false);
+            }
+
+        });
+        enqueue("bind 9-field form", new Benchmark.Scenario() {
+
+            private final List<LabelledMarqueeEditText> mFields = new ArrayList<>();
+
+            @Override
+            public void setUp() {
+                mHost.removeAllViews();
+                ViewGroup form = (ViewGroup) mInflater.inflate(R.layout.form_benchmark, mHost, false);
+                mHost.addView(form);
+                for (int index = 0; index < form.getChildCount(); index++) {
+                    mFields.add((LabelledMarqueeEditText) form.getChildAt(index));
+                }
+                checkRecycleAndBind(mFields.get(0));
+            }
+
+            @Override
+            public void run(int iteration) {
+                for (int index = 0; index < mFields.size(); index++) {
+                    LabelledMarqueeEditText field = mFields.get(index);
+                    field.recycle();
+                    field.bind(VALUES[(iteration + index) % (VALUES.length - 1)],
+                            index == iteration % mFields.size() ? VALUES[0] : null);
+                }
+            }
+
+        });
+    }
+
+    private void enqueue(final String name, final Benchmark.Scenario scenario) {
+        mPendingScenarios.add(new Runnable() {
+            @Override
+            public void run() {
+                report(Benchmark.measure(name, WARMUP_ITERATIONS, ITERATIONS, scenario, mFrame).toString());
+                mHost.removeAllViews();
+                runNextScenario();
+            }
+        });
+    }
+
+    private void runNextScenario() {
+        final Runnable scenario = mPendingScenarios.poll();
+        if (scenario == null) {
+            report("Done.");
+            return;
+        }
+        mHost.postDelayed(scenario, 100);
+    }
+
+    private void runFrame() {
+        final View root = mHost.getRootView();
+        if (mFrameBitmap == null) {
+            mFrameBitmap = Bitmap.createBitmap(Math.max(1, root.getWidth()),
+                    Math.max(1, root.getHeight()), Bitmap.Config.ARGB_8888);
+            mFrameCanvas = new Canvas(mFrameBitmap);
+        }
+        mHost.measure(View.MeasureSpec.makeMeasureSpec(mHost.getWidth(), View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(mFrameBitmap.getHeight(), View.MeasureSpec.AT_MOST));
+        mHost.layout(mHost.getLeft(), mHost.getTop(),
+                mHost.getLeft() + mHost.getMeasuredWidth(), mHost.getTop() + mHost.getMeasuredHeight());
+        mFrameBitmap.eraseColor(Color.TRANSPARENT);
+        mHost.draw(mFrameCanvas);
+    }
+
+    private void report(String line) {
+        Log.i(TAG, line);
+        mReport.append(line).append('\n');
+        mResults.setText(mReport);
+    }
+
+    private void checkRecycleAndBind(LabelledMarqueeEditText field) {
+        field.bind(VALUES[2], VALUES[0]);
+        runFrame();
+        field.recycle();
+        runFrame();
+        checkDisplayed(field, "", null);
+        field.bind(VALUES[1], VALUES[3]);
+        runFrame();
+        checkDisplayed(field, VALUES[1], VALUES[3]);
+        field.recycle();
+        field.bind(VALUES[0]);
+        runFrame();
+        checkDisplayed(field, VALUES[0], null);
+    }
+
+    private static void checkDisplayed(LabelledMarqueeEditText field, String text, String error) {
+        if (!TextUtils.equals(field.getText(), text)) {
+            throw new IllegalStateException(String.format(Locale.US,
+                    "Recycled field holds \"%s\" instead of \"%s\".", field.getText(), text));
+        }
+        final EditText editText = findEditText(field);
+        if (editText == null) {
+            return;
+        }
+        if (!TextUtils.equals(editText.getText(), text)) {
+            throw new IllegalStateException(String.format(Locale.US,
+                    "Recycled field shows \"%s\" instead of \"%s\".", editText.getText(), text));
+        }
+        ViewParent parent = editText.getParent();
+        while (parent != null && !(parent instanceof TextInputLayout)) {
+            parent = parent.getParent();
+        }
+        if (parent == null) {
+            return;
+        }
+        final TextInputLayout layout = (TextInputLayout) parent;
+        final CharSequence shownError = layout.isErrorEnabled() ? layout.getError() : null;
+        if (!TextUtils.equals(TextUtils.isEmpty(shownError) ? null : shownError, error)) {
+            throw new IllegalStateException(String.format(Locale.US,
+                    "Recycled field shows error \"%s\" instead of \"%s\".", shownError, error));
+        }
+    }
+
+    private static EditText findEditText(View view) {
+        if (view instanceof EditText) {
+            return (EditText) view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int index = 0; index < group.getChildCount(); index++) {
+                EditText editText = findEditText(group.getChildAt(index));
+                if (editText != null) {
+                    return editText;
+                }
+            }
+        }
+        return null;
+    }
+
+    private abstract class FieldScenario implements Benchmark.Scenario {
+
+        private final int mMode;
+        LabelledMarqueeEditText mField;
+
+        FieldScenario(int mode) {
+            mMode = mode;
+        }
+
+        @Override
+        public void setUp() {
+            mHost.removeAllViews();
+            mField = (LabelledMarqueeEditText) mInflater.inflate(R.layout.field_benchmark, mHost, false);
+            mField.setText(VALUES[0]);
+            mField.setMode(mMode);
+            mHost.addView(mField);
+        }
+
+    }
+
+}
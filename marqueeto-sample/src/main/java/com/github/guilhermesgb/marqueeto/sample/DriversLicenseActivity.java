@@ -11,6 +11,7 @@ import android.support.v7.widget.Toolbar;
 import android.view.Menu;
 import android.view.MenuItem;
 
+import com.github.guilhermesgb.marqueeto.LabelledMarqueeInflationPool;
 import com.github.guilhermesgb.marqueeto.sample.event.DeleteLicenseEvent;
 import com.github.guilhermesgb.marqueeto.sample.event.NewLicenseEvent;
 import com.github.guilhermesgb.marqueeto.sample.event.UpdateLicenseEvent;
@@ -33,6 +34,8 @@ public class DriversLicenseActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        LabelledMarqueeInflationPool.prefetch(this, R.style.LabelledMarqueeEditTextCustomStyle,
+                LabelledMarqueeInflationPool.DEFAULT_CAPACITY);
         setContentView(R.layout.activity_drivers_license);
         ButterKnife.bind(this);
         setSupportActionBar(toolbar);
@@ -5,9 +5,7 @@ import android.content.DialogInterface;
 import android.support.design.widget.Snackbar;
 import android.support.v4.view.PagerAdapter;
 import android.support.v7.app.AlertDialog;
-import android.text.Editable;
 import android.text.TextUtils;
-import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,6 +13,10 @@ import android.widget.Button;
 
 import com.activeandroid.query.Select;
 import com.github.guilhermesgb.marqueeto.LabelledMarqueeEditText;
+import com.github.guilhermesgb.marqueeto.LabelledMarqueeForm;
+import com.github.guilhermesgb.marqueeto.LabelledMarqueeValidation;
+import com.github.guilhermesgb.marqueeto.LabelledMarqueeValidator;
+import com.github.guilhermesgb.marqueeto.LabelledMarqueeValidators;
 import com.github.guilhermesgb.marqueeto.sample.event.DeleteLicenseEvent;
 import com.github.guilhermesgb.marqueeto.sample.event.NewLicenseEvent;
 import com.github.guilhermesgb.marqueeto.sample.event.UpdateLicenseEvent;
@@ -30,6 +32,46 @@ import de.greenrobot.event.EventBus;
 
 public class LicensesViewPagerAdapter extends PagerAdapter {
 
+    private static final String[] FIELD_KEYS = {
+            "name", "identityNumber", "issuingOrg", "cpfNumber", "birthDate",
+            "filiation", "goodThru", "issuingDate", "location"
+    };
+
+    private static final LabelledMarqueeForm.Mapper<DriversLicense> LICENSE_MAPPER
+            = new LabelledMarqueeForm.Mapper<DriversLicense>() {
+
+        @Override
+        public String read(DriversLicense license, String key) {
+            switch (key) {
+                case "name": return license.getName();
+                case "identityNumber": return license.getIdentityNumber();
+                case "issuingOrg": return license.getIssuingOrg();
+                case "cpfNumber": return license.getCpfNumber();
+                case "birthDate": return license.getBirthDate();
+                case "filiation": return license.getFiliation();
+                case "goodThru": return license.getGoodThru();
+                case "issuingDate": return license.getIssuingDate();
+                default: return license.getLocation();
+            }
+        }
+
+        @Override
+        public void write(DriversLicense license, String key, CharSequence value) {
+            switch (key) {
+                case "name": license.setName(value.toString()); break;
+                case "identityNumber": license.setIdentityNumber(value.toString()); break;
+                case "issuingOrg": license.setIssuingOrg(value.toString()); break;
+                case "cpfNumber": license.setCpfNumber(value.toString()); break;
+                case "birthDate": license.setBirthDate(value.toString()); break;
+                case "filiation": license.setFiliation(value.toString()); break;
+                case "goodThru": license.setGoodThru(value.toString()); break;
+                case "issuingDate": license.setIssuingDate(value.toString()); break;
+                default: license.setLocation(value.toString()); break;
+            }
+        }
+
+    };
+
     class DriversLicenseForm {
 
         @Bind(R.id.name_edit_text) LabelledMarqueeEditText nameEditText;
@@ -73,86 +115,38 @@ public class LicensesViewPagerAdapter extends PagerAdapter {
         else {
             license = new DriversLicense();
         }
-        form.nameEditText.setText(license.getName());
-        form.identityNumberEditText.setText(license.getIdentityNumber());
-        form.issuingOrgEditText.setText(license.getIssuingOrg());
-        form.cpfNumberEditText.setText(license.getCpfNumber());
-        form.cpfNumberEditText.setTextChangedListener(new TextWatcher() {
-
-            @Override
-            public void beforeTextChanged(CharSequence sequence, int start, int count, int after) {}
-
-            private boolean isUpdating;
-            private String old = "";
-
-            private String unmask(String s) {
-                return s.replaceAll("[.]", "").replaceAll("[-]", "")
-                        .replaceAll("[/]", "").replaceAll("[(]", "")
-                        .replaceAll("[)]", "");
-            }
-
-            @Override
-            public void onTextChanged(CharSequence sequence, int start, int before, int count) {
-                String string = unmask(sequence.toString());
-                String mask = "";
-                if (isUpdating) {
-                    old = string;
-                    isUpdating = false;
-                    return;
-                }
-                int i = 0;
-                for (char m : "###.###.###-##".toCharArray()) {
-                    if (m != '#' && string.length() > old.length()) {
-                        mask += m;
-                        continue;
-                    }
-                    try {
-                        mask += string.charAt(i);
-                    } catch (Exception e) {
-                        break;
-                    }
-                    i++;
-                }
-                isUpdating = true;
-                form.cpfNumberEditText.setText(mask);
-            }
-
-            @Override
-            public void afterTextChanged(Editable sequence) {}
-
-        });
-        form.birthDateEditText.setText(license.getBirthDate());
-        form.filiationEditText.setText(license.getFiliation());
-        form.goodThruEditText.setText(license.getGoodThru());
-        form.issuingDateEditText.setText(license.getIssuingDate());
-        form.locationEditText.setText(license.getLocation());
+        final LabelledMarqueeEditText[] fields = {
+                form.nameEditText, form.identityNumberEditText, form.issuingOrgEditText,
+                form.cpfNumberEditText, form.birthDateEditText, form.filiationEditText,
+                form.goodThruEditText, form.issuingDateEditText, form.locationEditText
+        };
+        final LabelledMarqueeForm fieldGroup = new LabelledMarqueeForm();
+        LabelledMarqueeValidator required = LabelledMarqueeValidators
+                .required(context.getString(R.string.label_error_value_cannot_be_empty));
+        for (int index = 0; index < fields.length; index++) {
+            fields[index].addValidator(required);
+            fields[index].setValidationErrorStyle(R.style.LabelledMarqueeEditTextCustomStyleError);
+            fieldGroup.put(FIELD_KEYS[index], fields[index]);
+        }
+        fieldGroup.bind(license, LICENSE_MAPPER);
         form.saveButton.setOnClickListener(new View.OnClickListener() {
 
             @Override
             public void onClick(View view) {
-                if (validateAllFieldValues(form, context.getString(R.string.label_error_value_cannot_be_empty))) {
-                    license.setName(form.nameEditText.getText());
-                    license.setIdentityNumber(form.identityNumberEditText.getText());
-                    license.setIssuingOrg(form.issuingOrgEditText.getText());
-                    license.setCpfNumber(form.cpfNumberEditText.getText());
-                    license.setBirthDate(form.birthDateEditText.getText());
-                    license.setFiliation(form.filiationEditText.getText());
-                    license.setGoodThru(form.goodThruEditText.getText());
-                    license.setIssuingDate(form.issuingDateEditText.getText());
-                    license.setLocation(form.locationEditText.getText());
-                    license.save();
-                    ColoredSnackbar.alert(Snackbar.make(form.saveButton,
-                            context.getString(R.string.snackbar_saved_successfully), Snackbar.LENGTH_SHORT)).show();
-                    if (position == 0) {
-                        EventBus.getDefault().post(new NewLicenseEvent());
-                    }
-                    else {
-                        EventBus.getDefault().post(new UpdateLicenseEvent(license.getCpfNumber()));
+                fieldGroup.validate(new LabelledMarqueeValidation.Listener() {
+
+                    @Override
+                    public void onValidated(boolean valid) {
+                        if (valid) {
+                            fieldGroup.read(license, LICENSE_MAPPER);
+                            saveLicense(form.saveButton, license, position);
+                        } else {
+                            ColoredSnackbar.alert(Snackbar.make(form.saveButton,
+                                    context.getString(R.string.snackbar_save_failed), Snackbar.LENGTH_SHORT)).show();
+                        }
                     }
-                } else {
-                    ColoredSnackbar.alert(Snackbar.make(form.saveButton,
-                            context.getString(R.string.snackbar_save_failed), Snackbar.LENGTH_SHORT)).show();
-                }
+
+                });
             }
 
         });
@@ -188,30 +182,16 @@ public class LicensesViewPagerAdapter extends PagerAdapter {
         return view;
     }
 
-    private boolean validateAllFieldValues(DriversLicenseForm form, String errorMessage) {
-        boolean veredict = validateFieldValue(form.nameEditText, errorMessage);
-        veredict &= validateFieldValue(form.identityNumberEditText, errorMessage);
-        veredict &= validateFieldValue(form.issuingOrgEditText, errorMessage);
-        veredict &= validateFieldValue(form.cpfNumberEditText, errorMessage);
-        veredict &= validateFieldValue(form.birthDateEditText, errorMessage);
-        veredict &= validateFieldValue(form.filiationEditText, errorMessage);
-        veredict &= validateFieldValue(form.goodThruEditText, errorMessage);
-        veredict &= validateFieldValue(form.issuingDateEditText, errorMessage);
-        veredict &= validateFieldValue(form.locationEditText, errorMessage);
-        return veredict;
-    }
-
-    private boolean validateFieldValue(LabelledMarqueeEditText editTextField, String errorMessage) {
-        String value = editTextField.getText();
-        if (value == null || value.trim().isEmpty()) {
-            editTextField.setCustomStyle(R.style.LabelledMarqueeEditTextCustomStyleError);
-            editTextField.setErrorEnabled(true);
-            editTextField.setError(errorMessage);
-            return false;
+    private void saveLicense(View saveButton, DriversLicense license, int position) {
+        license.save();
+        ColoredSnackbar.alert(Snackbar.make(saveButton,
+                context.getString(R.string.snackbar_saved_successfully), Snackbar.LENGTH_SHORT)).show();
+        if (position == 0) {
+            EventBus.getDefault().post(new NewLicenseEvent());
+        }
+        else {
+            EventBus.getDefault().post(new UpdateLicenseEvent(license.getCpfNumber()));
         }
-        editTextField.setCustomStyle(R.style.LabelledMarqueeEditTextCustomStyle);
-        editTextField.setErrorEnabled(false);
-        return true;
     }
 
     @Override
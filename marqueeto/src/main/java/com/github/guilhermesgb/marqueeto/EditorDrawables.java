@@ -0,0 +1,277 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.Context;
+import android.graphics.ColorFilter;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.v4.content.ContextCompat;
+import android.util.Log;
+import android.util.SparseArray;
+import android.widget.TextView;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+
+final class EditorDrawables {
+
+    private static final String TAG = EditorDrawables.class.getSimpleName();
+
+    private static final int STRATEGY_UNRESOLVED = 0;
+    private static final int STRATEGY_NONE = 1;
+    private static final int STRATEGY_PUBLIC_METHOD = 2;
+    private static final int STRATEGY_EDITOR_FIELD = 3;
+    private static final int STRATEGY_TEXT_VIEW_FIELD = 4;
+
+    private static final HashMap<Long, Drawable.ConstantState> sTintedDrawables = new HashMap<>();
+    private static final SparseArray<ColorFilter> sColorFilters = new SparseArray<>();
+
+    private static int sCursorStrategy = STRATEGY_UNRESOLVED;
+    private static int sHandleStrategy = STRATEGY_UNRESOLVED;
+    private static Field sCursorDrawableResField;
+    private static Field sEditorField;
+    private static Field sCursorDrawableField;
+    private static Method sSetTextCursorDrawableMethod;
+    private static Method sGetTextCursorDrawableMethod;
+    private static Field[] sSelectHandleFields;
+    private static Method[] sSetTextSelectHandleMethods;
+
+    private EditorDrawables() {}
+
+    static boolean setCursorColor(TextView textView, int color) {
+        resolveCursorStrategy();
+        if (sCursorStrategy == STRATEGY_NONE) {
+            return false;
+        }
+        try {
+            switch (sCursorStrategy) {
+                case STRATEGY_PUBLIC_METHOD:
+                    Drawable cursor = obtainTintedCursor(textView, color);
+                    if (cursor != null) {
+                        sSetTextCursorDrawableMethod.invoke(textView, cursor);
+                    }
+                    break;
+                case STRATEGY_EDITOR_FIELD:
+                    Object editor = sEditorField.get(textView);
+                    if (editor != null) {
+                        setCursorDrawables(editor, textView, color);
+                    }
+                    break;
+                case STRATEGY_TEXT_VIEW_FIELD:
+                    setCursorDrawables(textView, textView, color);
+                    break;
+            }
+        }
+        catch (Exception exception) {
+            Log.d(TAG, "Could not override EditText's cursor drawable color via reflection: "
+                    + exception.getMessage());
+            sCursorStrategy = STRATEGY_NONE;
+            return false;
+        }
+        return true;
+    }
+
+    static boolean setSelectHandleColor(TextView textView, int color) {
+        resolveSelectHandleStrategy();
+        if (sHandleStrategy == STRATEGY_NONE) {
+            return false;
+        }
+        final Context context = textView.getContext();
+        final Drawable left = obtainTinted(context, R.drawable.text_select_handle_left_material, color);
+        final Drawable right = obtainTinted(context, R.drawable.text_select_handle_right_material, color);
+        final Drawable middle = obtainTinted(context, R.drawable.text_select_handle_middle_material, color);
+        try {
+            switch (sHandleStrategy) {
+                case STRATEGY_PUBLIC_METHOD:
+                    sSetTextSelectHandleMethods[0].invoke(textView, left);
+                    sSetTextSelectHandleMethods[1].invoke(textView, right);
+                    sSetTextSelectHandleMethods[2].invoke(textView, middle);
+                    break;
+                case STRATEGY_EDITOR_FIELD:
+                    Object editor = sEditorField.get(textView);
+                    if (editor != null) {
+                        setSelectHandles(editor, left, right, middle);
+                    }
+                    break;
+                case STRATEGY_TEXT_VIEW_FIELD:
+                    setSelectHandles(textView, left, right, middle);
+                    break;
+            }
+        }
+        catch (Exception exception) {
+            Log.d(TAG, "Could not override EditText's text selection handles via reflection: "
+                    + exception.getMessage());
+            sHandleStrategy = STRATEGY_NONE;
+            return false;
+        }
+        return true;
+    }
+
+    private static void setSelectHandles(Object owner, Drawable left, Drawable right, Drawable middle)
+            throws IllegalAccessException {
+        sSelectHandleFields[0].set(owner, left);
+        sSelectHandleFields[1].set(owner, right);
+        sSelectHandleFields[2].set(owner, middle);
+    }
+
+    private static void setCursorDrawables(Object owner, TextView textView, int color)
+            throws IllegalAccessException {
+        final int cursorDrawableRes = sCursorDrawableResField.getInt(textView);
+        if (cursorDrawableRes == 0) {
+            return;
+        }
+        final Drawable[] drawables = new Drawable[2];
+        drawables[0] = obtainTinted(textView.getContext(), cursorDrawableRes, color);
+        drawables[1] = obtainTinted(textView.getContext(), cursorDrawableRes, color);
+        sCursorDrawableField.set(owner, drawables);
+    }
+
+    private static Drawable obtainTintedCursor(TextView textView, int color) throws Exception {
+        if (sCursorDrawableResField != null) {
+            final int cursorDrawableRes = sCursorDrawableResField.getInt(textView);
+            return cursorDrawableRes == 0 ? null : obtainTinted(textView.getContext(), cursorDrawableRes, color);
+        }
+        final Drawable cursor = (Drawable) sGetTextCursorDrawableMethod.invoke(textView);
+        if (cursor == null) {
+            return null;
+        }
+        final Drawable tintedCursor = cursor.mutate();
+        tintedCursor.setColorFilter(obtainColorFilter(color));
+        return tintedCursor;
+    }
+
+    static Drawable obtainTinted(Context context, int drawableRes, int color) {
+        final Long key = ((long) drawableRes << 32) | (color & 0xffffffffL);
+        final Drawable.ConstantState state = sTintedDrawables.get(key);
+        Drawable drawable;
+        if (state != null) {
+            drawable = state.newDrawable(context.getResources());
+        }
+        else {
+            drawable = ContextCompat.getDrawable(context, drawableRes).mutate();
+        }
+        drawable.setColorFilter(obtainColorFilter(color));
+        if (state == null && drawable.getConstantState() != null) {
+            sTintedDrawables.put(key, drawable.getConstantState());
+        }
+        return drawable;
+    }
+
+    private static ColorFilter obtainColorFilter(int color) {
+        ColorFilter colorFilter = sColorFilters.get(color);
+        if (colorFilter == null) {
+            colorFilter = new PorterDuffColorFilter(color, PorterDuff.Mode.SRC_IN);
+            sColorFilters.put(color, colorFilter);
+        }
+        return colorFilter;
+    }
+
+    private static void resolveCursorStrategy() {
+        if (sCursorStrategy != STRATEGY_UNRESOLVED) {
+            return;
+        }
+        sCursorDrawableResField = findField(TextView.class, "mCursorDrawableRes");
+        if (Build.VERSION.SDK_INT >= 29) {
+            try {
+                sSetTextCursorDrawableMethod = TextView.class.getMethod("setTextCursorDrawable", Drawable.class);
+                if (sCursorDrawableResField == null) {
+                    sGetTextCursorDrawableMethod = TextView.class.getMethod("getTextCursorDrawable");
+                }
+                sCursorStrategy = STRATEGY_PUBLIC_METHOD;
+            }
+            catch (NoSuchMethodException exception) {
+                Log.d(TAG, "Could not find TextView's public cursor drawable accessors: "
+                        + exception.getMessage());
+                sCursorStrategy = STRATEGY_NONE;
+            }
+            return;
+        }
+        if (sCursorDrawableResField == null) {
+            sCursorStrategy = STRATEGY_NONE;
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            sEditorField = findField(TextView.class, "mEditor");
+            try {
+                sCursorDrawableField = findField(Class.forName("android.widget.Editor"), "mCursorDrawable");
+            }
+            catch (ClassNotFoundException exception) {
+                Log.d(TAG, "Could not find EditText's editor class: " + exception.getMessage());
+            }
+            sCursorStrategy = sEditorField != null && sCursorDrawableField != null
+                    ? STRATEGY_EDITOR_FIELD : STRATEGY_NONE;
+        }
+        else {
+            sCursorDrawableField = findField(TextView.class, "mCursorDrawable");
+            sCursorStrategy = sCursorDrawableField != null ? STRATEGY_TEXT_VIEW_FIELD : STRATEGY_NONE;
+        }
+    }
+
+    private static void resolveSelectHandleStrategy() {
+        if (sHandleStrategy != STRATEGY_UNRESOLVED) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= 29) {
+            try {
+                sSetTextSelectHandleMethods = new Method[] {
+                        TextView.class.getMethod("setTextSelectHandleLeft", Drawable.class),
+                        TextView.class.getMethod("setTextSelectHandleRight", Drawable.class),
+                        TextView.class.getMethod("setTextSelectHandle", Drawable.class)
+                };
+                sHandleStrategy = STRATEGY_PUBLIC_METHOD;
+            }
+            catch (NoSuchMethodException exception) {
+                Log.d(TAG, "Could not find TextView's public selection handle accessors: "
+                        + exception.getMessage());
+                sHandleStrategy = STRATEGY_NONE;
+            }
+            return;
+        }
+        Class<?> owner = TextView.class;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (sEditorField == null) {
+                sEditorField = findField(TextView.class, "mEditor");
+            }
+            try {
+                owner = Class.forName("android.widget.Editor");
+            }
+            catch (ClassNotFoundException exception) {
+                Log.d(TAG, "Could not find EditText's editor class: " + exception.getMessage());
+                sHandleStrategy = STRATEGY_NONE;
+                return;
+            }
+        }
+        sSelectHandleFields = new Field[] {
+                findField(owner, "mSelectHandleLeft"),
+                findField(owner, "mSelectHandleRight"),
+                findField(owner, "mSelectHandleCenter")
+        };
+        for (Field field : sSelectHandleFields) {
+            if (field == null) {
+                sHandleStrategy = STRATEGY_NONE;
+                return;
+            }
+        }
+        if (owner == TextView.class) {
+            sHandleStrategy = STRATEGY_TEXT_VIEW_FIELD;
+        }
+        else {
+            sHandleStrategy = sEditorField != null ? STRATEGY_EDITOR_FIELD : STRATEGY_NONE;
+        }
+    }
+
+    static Field findField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        }
+        catch (Exception exception) {
+            Log.d(TAG, "Could not access field " + name + " via reflection: " + exception.getMessage());
+            return null;
+        }
+    }
+
+}
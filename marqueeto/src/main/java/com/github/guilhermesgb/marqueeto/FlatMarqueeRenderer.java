@@ -0,0 +1,285 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+
+final class FlatMarqueeRenderer {
+
+    private static final float LABEL_TEXT_SIZE_SP = 12;
+    private static final float ERROR_TEXT_SIZE_SP = 12;
+    private static final String ICON_SPACING = "   ";
+    private static final String ELLIPSIS = "\u2026";
+    private static final int WINDOW_WIDTHS = 3;
+    private static final int WINDOW_LENGTH = 1024;
+
+    private final TextPaint mLabelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint mTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint mErrorPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+    private final float[] mMeasuredWidth = new float[1];
+
+    private final int mLeftPadding;
+    private final int mBottomPadding;
+    private final int mMinHeight;
+    private final int mIconSize;
+
+    private CharSequence mLabel;
+    private CharSequence mText;
+    private CharSequence mError;
+    private Drawable mIcon;
+    private int mIconGravity;
+
+    private int mEllipsizedWidth = -1;
+    private int mEllipsizedLength;
+    private float mEllipsizedTextWidth;
+    private boolean mEllipsized;
+    private int mWindowStart;
+    private float mWindowStartX;
+    private int mScrollOffset;
+    private boolean mScrolling;
+    private int mScrollRange;
+    private int mScrollRangeWidth = -1;
+
+    FlatMarqueeRenderer(Context context) {
+        Resources resources = context.getResources();
+        mLeftPadding = resources.getDimensionPixelSize(R.dimen
+                .labelled_marquee_edit_text_icon_text_view_left_padding);
+        mBottomPadding = resources.getDimensionPixelSize(R.dimen
+                .labelled_marquee_edit_text_icon_text_view_bottom_padding);
+        mMinHeight = resources.getDimensionPixelSize(R.dimen
+                .labelled_marquee_edit_text_icon_text_view_min_height);
+        mIconSize = resources.getDimensionPixelSize(R.dimen
+                .labelled_marquee_edit_text_default_icon_size_small);
+        mLabelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                LABEL_TEXT_SIZE_SP, resources.getDisplayMetrics()));
+        mErrorPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                ERROR_TEXT_SIZE_SP, resources.getDisplayMetrics()));
+    }
+
+    void setLabel(CharSequence label, int color) {
+        mLabel = label;
+        mLabelPaint.setColor(color);
+    }
+
+    void setText(CharSequence text) {
+        if (!TextUtils.equals(mText, text)) {
+            mText = text;
+            mEllipsizedWidth = -1;
+            resetWindow();
+        }
+    }
+
+    void setTextAppearance(float textSize, int textColor, int textStyle) {
+        if (mTextPaint.getTextSize() != textSize
+                || mTextPaint.getTypeface() == null
+                || mTextPaint.getTypeface().getStyle() != textStyle) {
+            mTextPaint.setTextSize(textSize);
+            mTextPaint.setTypeface(Typeface.create(Typeface.DEFAULT, textStyle));
+            mEllipsizedWidth = -1;
+            resetWindow();
+        }
+        mTextPaint.setColor(textColor);
+    }
+
+    void setIcon(Drawable icon, int iconGravity) {
+        if (mIcon != icon || mIconGravity != iconGravity) {
+            mIcon = icon;
+            mIconGravity = iconGravity;
+            mEllipsizedWidth = -1;
+        }
+    }
+
+    void setError(CharSequence error, int color) {
+        mError = error;
+        mErrorPaint.setColor(color);
+    }
+
+    void setScroll(int offset, boolean scrolling) {
+        mScrollOffset = offset;
+        mScrolling = scrolling;
+    }
+
+    boolean isScrolling() {
+        return mScrolling;
+    }
+
+    int getScrollRange(int left, int right) {
+        if (mText == null) {
+            return 0;
+        }
+        final int availableWidth = getAvailableTextWidth(left, right);
+        if (mScrollRangeWidth == availableWidth) {
+            return mScrollRange;
+        }
+        mScrollRangeWidth = availableWidth;
+        final int windowEnd = mWindowStart + mTextPaint.breakText(mText, mWindowStart, getWindowLimit(), true,
+                WINDOW_WIDTHS * availableWidth, mMeasuredWidth);
+        if (windowEnd < mText.length()) {
+            mScrollRange = Integer.MAX_VALUE;
+        }
+        else {
+            mScrollRange = (int) Math.ceil(mWindowStartX + mMeasuredWidth[0]) - availableWidth;
+        }
+        return mScrollRange;
+    }
+
+    int getDesiredHeight() {
+        int height = Math.max(mMinHeight, lineHeight(mLabelPaint) + lineHeight(mTextPaint) + mBottomPadding);
+        if (hasError()) {
+            height += lineHeight(mErrorPaint);
+        }
+        return height;
+    }
+
+    void getTextBounds(int left, int top, int right, int bottom, Rect bounds) {
+        int contentBottom = bottom;
+        if (hasError()) {
+            contentBottom -= lineHeight(mErrorPaint);
+        }
+        mTextPaint.getFontMetricsInt(mFontMetrics);
+        int baseline = contentBottom - mBottomPadding - mFontMetrics.descent;
+        int textLeft = getTextLeft(left);
+        bounds.set(textLeft, Math.max(baseline + mFontMetrics.top, top),
+                textLeft + getAvailableTextWidth(left, right), Math.min(baseline + mFontMetrics.bottom, bottom));
+    }
+
+    void draw(Canvas canvas, int left, int top, int right, int bottom) {
+        int contentBottom = bottom;
+        if (hasError()) {
+            mErrorPaint.getFontMetricsInt(mFontMetrics);
+            canvas.drawText(mError, 0, mError.length(), left + mLeftPadding,
+                    bottom - mFontMetrics.descent, mErrorPaint);
+            contentBottom -= mFontMetrics.descent - mFontMetrics.ascent;
+        }
+        if (!TextUtils.isEmpty(mLabel)) {
+            mLabelPaint.getFontMetricsInt(mFontMetrics);
+            canvas.drawText(mLabel, 0, mLabel.length(), left + mLeftPadding,
+                    top - mFontMetrics.ascent, mLabelPaint);
+        }
+        mTextPaint.getFontMetricsInt(mFontMetrics);
+        int baseline = contentBottom - mBottomPadding - mFontMetrics.descent;
+        int textLeft = getTextLeft(left);
+        int availableWidth = getAvailableTextWidth(left, right);
+        float drawnTextWidth;
+        if (mScrolling && mText != null) {
+            advanceWindow(availableWidth);
+            final float windowOffset = mScrollOffset - mWindowStartX;
+            int windowEnd = mWindowStart + mTextPaint.breakText(mText, mWindowStart, getWindowLimit(), true,
+                    windowOffset + availableWidth, null);
+            if (windowEnd < mText.length()) {
+                windowEnd += Character.isHighSurrogate(mText.charAt(windowEnd)) && windowEnd + 1 < mText.length()
+                        ? 2 : 1;
+            }
+            canvas.save();
+            canvas.clipRect(textLeft, top, textLeft + availableWidth, bottom);
+            canvas.drawText(mText, mWindowStart, windowEnd, textLeft - windowOffset, baseline, mTextPaint);
+            canvas.restore();
+            drawnTextWidth = availableWidth;
+        }
+        else {
+            ellipsize(availableWidth);
+            if (mText != null) {
+                canvas.drawText(mText, 0, mEllipsizedLength, textLeft, baseline, mTextPaint);
+            }
+            if (mEllipsized) {
+                canvas.drawText(ELLIPSIS, textLeft + mEllipsizedTextWidth, baseline, mTextPaint);
+                drawnTextWidth = mEllipsizedTextWidth + mTextPaint.measureText(ELLIPSIS);
+            }
+            else {
+                drawnTextWidth = mEllipsizedTextWidth;
+            }
+        }
+        if (mIcon != null) {
+            int iconLeft;
+            if (mIconGravity == LabelledMarqueeEditText.ICON_GRAVITY_LEFT) {
+                iconLeft = left + mLeftPadding;
+            } else {
+                iconLeft = textLeft + (int) drawnTextWidth + getIconSpacing();
+            }
+            int iconTop = baseline + (mFontMetrics.ascent + mFontMetrics.descent) / 2 - mIconSize / 2;
+            mIcon.setBounds(iconLeft, iconTop, iconLeft + mIconSize, iconTop + mIconSize);
+            mIcon.draw(canvas);
+        }
+    }
+
+    private int getTextLeft(int left) {
+        int textLeft = left + mLeftPadding;
+        if (mIcon != null && mIconGravity == LabelledMarqueeEditText.ICON_GRAVITY_LEFT) {
+            textLeft += mIconSize + getIconSpacing();
+        }
+        return textLeft;
+    }
+
+    private int getAvailableTextWidth(int left, int right) {
+        int availableWidth = right - getTextLeft(left);
+        if (mIcon != null && mIconGravity == LabelledMarqueeEditText.ICON_GRAVITY_RIGHT) {
+            availableWidth -= mIconSize + getIconSpacing();
+        }
+        return Math.max(availableWidth, 0);
+    }
+
+    private int getIconSpacing() {
+        return mIcon == null ? 0 : (int) mTextPaint.measureText(ICON_SPACING);
+    }
+
+    private void ellipsize(int availableWidth) {
+        if (mEllipsizedWidth == availableWidth) {
+            return;
+        }
+        mEllipsizedWidth = availableWidth;
+        mEllipsized = false;
+        mEllipsizedLength = 0;
+        mEllipsizedTextWidth = 0;
+        if (mText == null) {
+            return;
+        }
+        mEllipsizedLength = mTextPaint.breakText(mText, 0, mText.length(), true, availableWidth, mMeasuredWidth);
+        if (mEllipsizedLength < mText.length()) {
+            mEllipsized = true;
+            mEllipsizedLength = mTextPaint.breakText(mText, 0, mText.length(), true,
+                    Math.max(availableWidth - mTextPaint.measureText(ELLIPSIS), 0), mMeasuredWidth);
+        }
+        mEllipsizedTextWidth = mMeasuredWidth[0];
+    }
+
+    private void advanceWindow(int windowWidth) {
+        if (mScrollOffset < mWindowStartX) {
+            resetWindow();
+        }
+        final float skippedWidth = mScrollOffset - mWindowStartX;
+        if (skippedWidth > windowWidth) {
+            mWindowStart += mTextPaint.breakText(mText, mWindowStart, getWindowLimit(), true,
+                    skippedWidth, mMeasuredWidth);
+            mWindowStartX += mMeasuredWidth[0];
+            mScrollRangeWidth = -1;
+        }
+    }
+
+    private void resetWindow() {
+        mWindowStart = 0;
+        mWindowStartX = 0;
+        mScrollRangeWidth = -1;
+    }
+
+    private int getWindowLimit() {
+        return Math.min(mText.length(), mWindowStart + WINDOW_LENGTH);
+    }
+
+    private boolean hasError() {
+        return mError != null && mError.length() > 0;
+    }
+
+    private int lineHeight(TextPaint paint) {
+        paint.getFontMetricsInt(mFontMetrics);
+        return mFontMetrics.descent - mFontMetrics.ascent;
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.text.Editable;
+import android.text.InputFilter;
+import android.text.Selection;
+import android.text.SpannableStringBuilder;
+import android.text.TextWatcher;
+
+final class InputMask implements TextWatcher {
+
+    private static final char DIGIT_SLOT = '#';
+    private static final char LETTER_SLOT = 'A';
+    private static final char ALPHANUMERIC_SLOT = '*';
+    private static final char ESCAPE = '\\';
+
+    private static final byte KIND_LITERAL = 0;
+    private static final byte KIND_DIGIT = 1;
+    private static final byte KIND_LETTER = 2;
+    private static final byte KIND_ALPHANUMERIC = 3;
+
+    private static final InputFilter[] NO_FILTERS = new InputFilter[0];
+
+    private final String mPattern;
+    private final String mLiterals;
+    private final byte[] mKinds;
+    private final int mSlotCount;
+
+    private boolean mFormatting;
+    private int mDeletedLiteralPosition = -1;
+
+    InputMask(String pattern) throws IllegalArgumentException {
+        mPattern = pattern;
+        final StringBuilder literals = new StringBuilder(pattern.length());
+        final byte[] kinds = new byte[pattern.length()];
+        int length = 0;
+        int slotCount = 0;
+        for (int index = 0; index < pattern.length(); index++) {
+            char character = pattern.charAt(index);
+            byte kind = KIND_LITERAL;
+            if (character == ESCAPE) {
+                if (++index == pattern.length()) {
+                    throw new IllegalArgumentException("Input mask ends with a dangling escape: " + pattern);
+                }
+                character = pattern.charAt(index);
+            }
+            else if (character == DIGIT_SLOT) {
+                kind = KIND_DIGIT;
+            }
+            else if (character == LETTER_SLOT) {
+                kind = KIND_LETTER;
+            }
+            else if (character == ALPHANUMERIC_SLOT) {
+                kind = KIND_ALPHANUMERIC;
+            }
+            if (kind != KIND_LITERAL) {
+                slotCount++;
+            }
+            literals.append(character);
+            kinds[length++] = kind;
+        }
+        if (slotCount == 0) {
+            throw new IllegalArgumentException("Input mask has no character slots: " + pattern);
+        }
+        mLiterals = literals.toString();
+        mKinds = new byte[length];
+        System.arraycopy(kinds, 0, mKinds, 0, length);
+        mSlotCount = slotCount;
+    }
+
+    String getPattern() {
+        return mPattern;
+    }
+
+    String format(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        final SpannableStringBuilder builder = new SpannableStringBuilder(text);
+        format(builder, -1);
+        return builder.toString();
+    }
+
+    String unmask(CharSequence text) {
+        if (text == null) {
+            return "";
+        }
+        final StringBuilder unmasked = new StringBuilder(Math.min(text.length(), mSlotCount));
+        final int length = Math.min(text.length(), mKinds.length);
+        for (int index = 0; index < length; index++) {
+            if (mKinds[index] != KIND_LITERAL) {
+                unmasked.append(text.charAt(index));
+            }
+        }
+        return unmasked.toString();
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence sequence, int start, int count, int after) {
+        if (mFormatting) {
+            return;
+        }
+        mDeletedLiteralPosition = count == 1 && after == 0 && start < mKinds.length
+                && mKinds[start] == KIND_LITERAL ? start : -1;
+    }
+
+    @Override
+    public void onTextChanged(CharSequence sequence, int start, int before, int count) {}
+
+    @Override
+    public void afterTextChanged(Editable editable) {
+        if (mFormatting) {
+            return;
+        }
+        mFormatting = true;
+        final InputFilter[] filters = editable.getFilters();
+        editable.setFilters(NO_FILTERS);
+        int caret = Selection.getSelectionEnd(editable);
+        if (mDeletedLiteralPosition != -1) {
+            caret = deleteSlotBefore(editable, mDeletedLiteralPosition, caret);
+            mDeletedLiteralPosition = -1;
+        }
+        caret = format(editable, caret);
+        editable.setFilters(filters);
+        if (caret >= 0) {
+            Selection.setSelection(editable, Math.min(caret, editable.length()));
+        }
+        mFormatting = false;
+    }
+
+    private int deleteSlotBefore(Editable editable, int position, int caret) {
+        int index = Math.min(position, editable.length()) - 1;
+        while (index >= 0 && mKinds[index] == KIND_LITERAL) {
+            index--;
+        }
+        if (index >= 0) {
+            editable.delete(index, index + 1);
+            if (index < caret) {
+                caret--;
+            }
+        }
+        return caret;
+    }
+
+    private int format(Editable editable, int caret) {
+        int index = 0;
+        int slot = 0;
+        while (index < editable.length()) {
+            if (slot == mKinds.length) {
+                if (caret > index) {
+                    caret = index;
+                }
+                editable.delete(index, editable.length());
+                break;
+            }
+            final char character = editable.charAt(index);
+            final byte kind = mKinds[slot];
+            if (kind == KIND_LITERAL) {
+                if (character != mLiterals.charAt(slot)) {
+                    editable.replace(index, index, mLiterals, slot, slot + 1);
+                    if (index < caret) {
+                        caret++;
+                    }
+                }
+                index++;
+                slot++;
+            }
+            else if (accepts(kind, character)) {
+                index++;
+                slot++;
+            }
+            else {
+                editable.delete(index, index + 1);
+                if (index < caret) {
+                    caret--;
+                }
+            }
+        }
+        return caret;
+    }
+
+    private static boolean accepts(byte kind, char character) {
+        switch (kind) {
+            case KIND_DIGIT:
+                return Character.isDigit(character);
+            case KIND_LETTER:
+                return Character.isLetter(character);
+            default:
+                return Character.isLetterOrDigit(character);
+        }
+    }
+
+}
@@ -1,32 +1,43 @@
 package com.github.guilhermesgb.marqueeto;
 
 import android.content.Context;
-import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.graphics.PorterDuff;
+import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
-import android.os.Handler;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.design.widget.TextInputLayout;
 import android.support.v4.content.ContextCompat;
-import android.support.v4.graphics.drawable.DrawableCompat;
 import android.support.v4.view.GestureDetectorCompat;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.ViewPropertyAnimatorCompat;
 import android.support.v7.widget.AppCompatEditText;
 import android.text.InputFilter;
 import android.text.InputType;
+import android.text.Layout;
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.TextPaint;
+import android.text.TextUtils;
 import android.text.TextWatcher;
+import android.text.method.SingleLineTransformationMethod;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.util.TypedValue;
 import android.view.GestureDetector;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.animation.AccelerateInterpolator;
-import android.view.animation.AlphaAnimation;
-import android.view.animation.AnimationSet;
+import android.view.animation.Interpolator;
 import android.view.inputmethod.EditorInfo;
 import android.widget.FrameLayout;
 import android.widget.TextView;
@@ -36,29 +47,55 @@ import com.joanzapata.iconify.IconDrawable;
 import com.joanzapata.iconify.IconFontDescriptor;
 import com.joanzapata.iconify.Iconify;
 import com.joanzapata.iconify.fonts.MaterialModule;
-import com.joanzapata.iconify.widget.IconTextView;
 
 import java.lang.ref.WeakReference;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import static android.util.TypedValue.COMPLEX_UNIT_DIP;
-
 public class LabelledMarqueeEditText extends FrameLayout {
 
     private static final String TAG = LabelledMarqueeEditText.class.getSimpleName();
     public static final int MODE_EDIT = 0;
     public static final int MODE_MARQUEE = 1;
+    public static final int DELIVERY_IMMEDIATE = 0;
+    public static final int DELIVERY_DEBOUNCE = 1;
+    public static final int DELIVERY_THROTTLE = 2;
     public static final int ICON_GRAVITY_RIGHT = 0;
     public static final int ICON_GRAVITY_LEFT = 1;
 
     private static final int ICON_CHARACTER_SECTION_LENGHT = 4;
+    private static final int DEFAULT_MARQUEE_SPEED_DP_PER_SECOND = 30;
+    private static final int DEFAULT_MARQUEE_START_DELAY = 1200;
+    private static final int DEFAULT_MARQUEE_MAX_FPS = 30;
+    private static final int DEFAULT_TRANSITION_FADE_IN_DURATION = 500;
+    private static final int DEFAULT_TRANSITION_FADE_OUT_DURATION = 700;
+    private static final int ASYNC_TEXT_LAYOUT_MIN_LENGTH = 64;
+    private static final int MARQUEE_TEXT_WINDOW_LENGTH = 1024;
+    private static final int MARQUEE_TEXT_WINDOW_WIDTHS = 3;
+    private static final String MARQUEE_TEXT_ELLIPSIS = "\u2026";
+    private static final Interpolator sTransitionInterpolator = new AccelerateInterpolator();
+
+    private static final String ICON_PLACEHOLDER = "\uFFFC";
+    private static final String ICON_LEFT_PADDING = "  ";
+    private static final String ICON_RIGHT_PADDING = "   ";
+    private static final InputFilter[] NO_FILTERS = new InputFilter[0];
+    private static final InputFilter ALL_CAPS_FILTER = new InputFilter.AllCaps();
+    private static final Spanned EMPTY_SPANNED = new SpannableString("");
 
     private static final AtomicInteger sNextGeneratedId = new AtomicInteger(1);
 
+    private static final Spannable.Factory sNoCopySpannableFactory = new Spannable.Factory() {
+        @Override
+        public Spannable newSpannable(CharSequence source) {
+            if (source instanceof Spannable) {
+                return (Spannable) source;
+            }
+            return super.newSpannable(source);
+        }
+    };
+
     private static Icon sNullIcon = new Icon() {
         @Override
         public String key() {
@@ -94,14 +131,17 @@ public class LabelledMarqueeEditText extends FrameLayout {
 
     private final IconDrawable mNullIconDrawable;
 
-    private Resources.Theme mContextTheme;
-    private AttributeSet mAttrs;
+    private ResolvedStyle mResolvedStyle;
+    private int mColorOverrideMask;
+    private final int[] mColorOverrides = new int[4];
 
     private TextInputLayout mTextInputLayout;
     private AppCompatEditText mEditText;
-    private IconTextView mTextView;
+    private TextView mTextView;
+    private MarqueeClipLayout mMarqueeClip;
 
-    private String mText;
+    private CharSequence mText;
+    private long mSyncedTextVersion = -1;
     private int mTextColor;
     private float mTextSize;
     private int mTextStyle;
@@ -110,20 +150,41 @@ public class LabelledMarqueeEditText extends FrameLayout {
     private int mHighlightColor;
     private int mIconColor;
     private String mIconKey;
-    private IconDrawable mIconDrawable;
-    private CharSequence mIconCharacter;
+    private Drawable mIconDrawable;
+    private CharSequence mIconSpanCharacter;
+    private MarqueeIconSpan mIconSpan;
+    private String mIconDrawableKey;
+    private int mIconDrawableColor;
+    private Drawable mHighlightedIconDrawable;
+    private int mHighlightedIconDrawableColor;
     private int mIconGravity;
     private int mErrorColor;
     private String mError;
     private boolean mErrorEnabled;
     private String mErrorCached;
     private int mPreferredMode;
+    private int mInitialPreferredMode;
     private int mCurrentMode;
     private int mInputType;
     private int mTextMaxLength;
     private boolean mTextAllCaps;
     private int mCurrentCustomStyle;
+    private int mInitialCustomStyle;
     private boolean mEditViaLongPress;
+    private boolean mFlatRender;
+    private boolean mLazyEditViews;
+    private InputMask mInputMask;
+    private boolean mAsyncTextLayout;
+    private int mMarqueeTextGeneration;
+    private String mPrecomputingMarqueeText;
+    private CharSequence mPrecomputingIconCharacter;
+    private String mPrecomputedMarqueeText;
+    private CharSequence mPrecomputedIconCharacter;
+    private final ArrayList<LabelledMarqueeValidator> mValidators = new ArrayList<>();
+    private int mValidationGeneration;
+    private String mValidationError;
+    private int mValidationErrorStyle;
+    private int mValidStyle;
 
     private boolean mTextChanged = true;
     private boolean mTextColorChanged = true;
@@ -136,8 +197,73 @@ public class LabelledMarqueeEditText extends FrameLayout {
     private boolean mStyleColorsChanged = true;
 
     private boolean mAnimationEnded = false;
+    private int mTransitionFadeInDuration;
+    private int mTransitionFadeOutDuration;
+    private Runnable mPendingTransitionEnd;
+
+    private int mUpdateDepth = 0;
+    private boolean mReloadPending = false;
 
     private TextWatcher mTextWatcher;
+    private final TextChangeDispatcher mTextChangeDispatcher = new TextChangeDispatcher(this);
+    private LabelledMarqueeMetrics.Listener mMetricsListener;
+    private final MarqueeText mMarqueeText = new MarqueeText();
+    private final SpannableStringBuilder mMarqueeWindowText = new SpannableStringBuilder();
+    private int mMarqueeWindowStart;
+    private int mMarqueeWindowEnd;
+    private int mMarqueeWindowWidth;
+    private float mMarqueeWindowShift;
+    private final PasswordMaskTransformationMethod mPasswordTransformation = new PasswordMaskTransformationMethod();
+    private final MarqueeAnimator mMarqueeAnimator = new MarqueeAnimator(new MarqueeTarget());
+    private GestureDetectorCompat mGestureDetector;
+
+    private FlatMarqueeRenderer mFlatRenderer;
+    private final Rect mFlatTextBounds = new Rect();
+    private final Rect mVisibleRect = new Rect();
+    private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener
+            = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            updateMarqueeVisibility();
+        }
+    };
+    private final Runnable mEditTransitionEndRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mPendingTransitionEnd != this) {
+                return;
+            }
+            mPendingTransitionEnd = null;
+            mAnimationEnded = true;
+            if (mTextView == null) {
+                return;
+            }
+            ViewCompat.setAlpha(mTextView, 1);
+            if (mCurrentMode == MODE_EDIT) {
+                mTextView.setVisibility(View.INVISIBLE);
+            }
+        }
+    };
+    private final Runnable mMarqueeTransitionEndRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mPendingTransitionEnd != this) {
+                return;
+            }
+            mPendingTransitionEnd = null;
+            mAnimationEnded = true;
+        }
+    };
+    private final Runnable mDetachEditViewsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mCurrentMode == MODE_MARQUEE && mTextInputLayout != null
+                    && mTextInputLayout.getParent() == LabelledMarqueeEditText.this
+                    && !mEditText.hasFocus()) {
+                removeView(mTextInputLayout);
+            }
+        }
+    };
 
     public LabelledMarqueeEditText(Context context) {
         this(context, null);
@@ -152,96 +278,47 @@ public class LabelledMarqueeEditText extends FrameLayout {
         if (isInEditMode()) {
             mNullIconDrawable = null;
         } else {
-            mNullIconDrawable = new IconDrawable(getContext(), sNullIcon) {
-
-                private int width, height;
-
-                public IconDrawable adjustBounds() {
-                    this.width = (int) TypedValue.applyDimension(COMPLEX_UNIT_DIP, 5,
-                            getContext().getResources().getDisplayMetrics());
-                    height = getContext().getResources().getDimensionPixelSize(R.dimen
-                            .labelled_marquee_edit_text_default_icon_size_big);
-                    setBounds(0, 0, width, height);
-                    invalidateSelf();
-                    return this;
-                }
-
-                @Override
-                public int getIntrinsicWidth() {
-                    return this.width;
-                }
-
-                @Override
-                public int getIntrinsicHeight() {
-                    return this.height;
-                }
-
-            }.adjustBounds();
+            mNullIconDrawable = LabelledMarqueeIconCache.obtainNullIcon(context, sNullIcon);
         }
-        mAttrs = attrs;
-        TypedArray customAttributes = context.obtainStyledAttributes(mAttrs,
+        TypedArray customAttributes = context.obtainStyledAttributes(attrs,
                 R.styleable.LabelledMarqueeEditText);
         mCurrentCustomStyle = customAttributes
                 .getResourceId(R.styleable.LabelledMarqueeEditText_labelledMarqueeEditTextStyle, -1);
-        Resources.Theme theme = overrideThemeWithCustomStyle(context, mCurrentCustomStyle);
-        final TypedArray themeAttributes = theme.obtainStyledAttributes(mAttrs, new int[]{
-                R.attr.baseColor, R.attr.highlightColor, R.attr.iconColor, R.attr.errorColor
-        }, 0, 0);
-        retrieveAttributesValues(customAttributes, themeAttributes);
-        buildEditAndMarqueeViews(context);
-        initEditAndMarqueeViews(true);
-        resetContextTheme(theme);
-    }
-
-    private void resetContextTheme(Resources.Theme theme) {
-        theme.setTo(getResources().newTheme());
-        theme.setTo(mContextTheme);
-        mContextTheme = null;
-    }
-
-    private Resources.Theme overrideThemeWithCustomStyle(Context context, int customAttributesStyle) {
-        final Resources.Theme theme = context.getTheme();
-        mContextTheme = getResources().newTheme();
-        mContextTheme.setTo(theme);
-        theme.applyStyle(R.style.LabelledMarqueeEditTextTheme, true);
-        if (customAttributesStyle != -1) {
-            theme.applyStyle(customAttributesStyle, true);
-        }
-        return theme;
-    }
-
-    private void retrieveAttributesValues(TypedArray customAttributes, TypedArray themeAttributes) {
-        retrieveThemeAttributeValues(themeAttributes);
+        mInitialCustomStyle = mCurrentCustomStyle;
+        retrieveColorOverrides(customAttributes);
+        retrieveThemeAttributeValues(context);
         retrieveCustomAttributeValues(customAttributes);
+        buildEditAndMarqueeViews(ResolvedStyle.obtainThemedContext(context, mCurrentCustomStyle));
+        initEditAndMarqueeViews(true);
     }
 
-    private void retrieveThemeAttributeValues(TypedArray themeAttributes) {
-        TypedValue typedValue = new TypedValue();
-        if (themeAttributes.getValue(themeAttributes.getIndex(0), typedValue)) {
-            mBaseColor = typedValue.data;
-        }
-        else {
-            mBaseColor = ContextCompat.getColor(getContext(), android.R.color.black);
-        }
-        if (themeAttributes.getValue(themeAttributes.getIndex(1), typedValue)) {
-            mHighlightColor = typedValue.data;
+    private void retrieveColorOverrides(TypedArray customAttributes) {
+        mColorOverrideMask = 0;
+        if (customAttributes.hasValue(R.styleable.LabelledMarqueeEditText_baseColor)) {
+            mColorOverrideMask |= ResolvedStyle.OVERRIDE_BASE_COLOR;
+            mColorOverrides[0] = customAttributes.getColor(R.styleable.LabelledMarqueeEditText_baseColor, 0);
         }
-        else {
-            mHighlightColor = ContextCompat.getColor(getContext(), android.R.color.black);
-        }
-        if (themeAttributes.getValue(themeAttributes.getIndex(2), typedValue)) {
-            mIconColor = typedValue.data;
-        }
-        else {
-            mIconColor = mBaseColor;
+        if (customAttributes.hasValue(R.styleable.LabelledMarqueeEditText_highlightColor)) {
+            mColorOverrideMask |= ResolvedStyle.OVERRIDE_HIGHLIGHT_COLOR;
+            mColorOverrides[1] = customAttributes.getColor(R.styleable.LabelledMarqueeEditText_highlightColor, 0);
         }
-        if (themeAttributes.getValue(themeAttributes.getIndex(3), typedValue)) {
-            mErrorColor = typedValue.data;
+        if (customAttributes.hasValue(R.styleable.LabelledMarqueeEditText_iconColor)) {
+            mColorOverrideMask |= ResolvedStyle.OVERRIDE_ICON_COLOR;
+            mColorOverrides[2] = customAttributes.getColor(R.styleable.LabelledMarqueeEditText_iconColor, 0);
         }
-        else {
-            mErrorColor = mHighlightColor;
+        if (customAttributes.hasValue(R.styleable.LabelledMarqueeEditText_errorColor)) {
+            mColorOverrideMask |= ResolvedStyle.OVERRIDE_ERROR_COLOR;
+            mColorOverrides[3] = customAttributes.getColor(R.styleable.LabelledMarqueeEditText_errorColor, 0);
         }
-        themeAttributes.recycle();
+    }
+
+    private void retrieveThemeAttributeValues(Context context) {
+        mResolvedStyle = ResolvedStyle.obtain(context, mCurrentCustomStyle)
+                .override(mColorOverrideMask, mColorOverrides);
+        mBaseColor = mResolvedStyle.baseColor;
+        mHighlightColor = mResolvedStyle.highlightColor;
+        mIconColor = mResolvedStyle.iconColor;
+        mErrorColor = mResolvedStyle.errorColor;
     }
 
     private void retrieveCustomAttributeValues(TypedArray customAttributes) {
@@ -262,23 +339,7 @@ public class LabelledMarqueeEditText extends FrameLayout {
         mHint = customAttributes.getString(R.styleable.LabelledMarqueeEditText_android_hint);
         mIconKey = customAttributes.getString(R.styleable.LabelledMarqueeEditText_iconKey);
         mIconGravity = customAttributes.getInt(R.styleable.LabelledMarqueeEditText_iconGravity, ICON_GRAVITY_RIGHT);
-        if (mIconKey == null || isInEditMode()) {
-            mIconDrawable = mNullIconDrawable;
-            mIconCharacter = "";
-        }
-        else {
-            mIconDrawable = new IconDrawable(getContext(), mIconKey)
-                    .color(mIconColor).sizeRes(R.dimen.labelled_marquee_edit_text_default_icon_size_big);
-            mIconCharacter = String.format(getResources()
-                    .getString(R.string.labelled_marquee_edit_text_layout_icon_definition_template),
-                    mIconKey, String.format("#%06X", (0xFFFFFF & mIconColor)),
-                    "@dimen/labelled_marquee_edit_text_default_icon_size_small");
-            if (mIconGravity == ICON_GRAVITY_RIGHT) {
-                mIconCharacter = "   " + mIconCharacter;
-            } else if (mIconGravity == ICON_GRAVITY_LEFT) {
-                mIconCharacter = "  " + mIconCharacter + "   ";
-            }
-        }
+        updateIcon();
         mErrorEnabled = customAttributes.getBoolean(R.styleable.LabelledMarqueeEditText_errorEnabled, true);
         String error = customAttributes.getString(R.styleable.LabelledMarqueeEditText_error);
         if (error == null || error.trim().isEmpty()) {
@@ -292,6 +353,7 @@ public class LabelledMarqueeEditText extends FrameLayout {
             mErrorCached = error;
         }
         mPreferredMode = customAttributes.getInt(R.styleable.LabelledMarqueeEditText_mode, MODE_MARQUEE);
+        mInitialPreferredMode = mPreferredMode;
         mInputType = customAttributes.getInt(R.styleable.LabelledMarqueeEditText_android_inputType,
                 EditorInfo.TYPE_CLASS_TEXT);
         mTextMaxLength = customAttributes.getInt(R.styleable.LabelledMarqueeEditText_android_maxLength, -1);
@@ -300,30 +362,125 @@ public class LabelledMarqueeEditText extends FrameLayout {
         }
         mTextAllCaps = customAttributes.getBoolean(R.styleable.LabelledMarqueeEditText_android_textAllCaps, false);
         mEditViaLongPress = customAttributes.getBoolean(R.styleable.LabelledMarqueeEditText_editViaLongPress, false);
+        String passwordMaskCharacter = customAttributes
+                .getString(R.styleable.LabelledMarqueeEditText_passwordMaskCharacter);
+        if (passwordMaskCharacter != null && !passwordMaskCharacter.isEmpty()) {
+            mPasswordTransformation.setMaskCharacter(passwordMaskCharacter.charAt(0));
+        }
+        mMarqueeAnimator.setSpeed(customAttributes.getDimension(R.styleable.LabelledMarqueeEditText_marqueeSpeed,
+                TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, DEFAULT_MARQUEE_SPEED_DP_PER_SECOND,
+                        getResources().getDisplayMetrics())));
+        mMarqueeAnimator.setStartDelay(customAttributes.getInt(R.styleable.LabelledMarqueeEditText_marqueeStartDelay,
+                DEFAULT_MARQUEE_START_DELAY));
+        mMarqueeAnimator.setRepeatLimit(customAttributes.getInt(R.styleable.LabelledMarqueeEditText_marqueeRepeatLimit,
+                MarqueeAnimator.REPEAT_FOREVER));
+        mMarqueeAnimator.setMaxFps(customAttributes.getInt(R.styleable.LabelledMarqueeEditText_marqueeMaxFps,
+                DEFAULT_MARQUEE_MAX_FPS));
+        mTransitionFadeInDuration = Math.max(customAttributes.getInt(R.styleable
+                .LabelledMarqueeEditText_transitionFadeInDuration, DEFAULT_TRANSITION_FADE_IN_DURATION), 0);
+        mTransitionFadeOutDuration = Math.max(customAttributes.getInt(R.styleable
+                .LabelledMarqueeEditText_transitionFadeOutDuration, DEFAULT_TRANSITION_FADE_OUT_DURATION), 0);
+        mLazyEditViews = customAttributes.getBoolean(R.styleable.LabelledMarqueeEditText_lazyEditViews, false);
+        mAsyncTextLayout = customAttributes.getBoolean(R.styleable.LabelledMarqueeEditText_asyncTextLayout, false);
+        mValidationErrorStyle = customAttributes
+                .getResourceId(R.styleable.LabelledMarqueeEditText_validationErrorStyle, -1);
+        mValidStyle = mCurrentCustomStyle;
+        String inputMask = customAttributes.getString(R.styleable.LabelledMarqueeEditText_inputMask);
+        if (inputMask != null && !inputMask.isEmpty()) {
+            mInputMask = new InputMask(inputMask);
+        }
+        mFlatRender = !isInEditMode()
+                && customAttributes.getBoolean(R.styleable.LabelledMarqueeEditText_flatRender, false);
         customAttributes.recycle();
     }
 
     private void buildEditAndMarqueeViews(Context context) {
+        buildMarqueeView(context);
+        if (!(mLazyEditViews || mFlatRender) || mPreferredMode != MODE_MARQUEE || isEmpty(true) || isInEditMode()) {
+            buildEditViews(context);
+        }
+    }
+
+    private void buildEditViews(Context context) {
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
         View editViewSource;
         if (isInEditMode()) {
             editViewSource = LayoutInflater.from(context).inflate(R.layout.layout_editable_edit_mode, this, false);
         } else {
-            editViewSource = LayoutInflater.from(context).inflate(R.layout.layout_editable, this, false);
+            editViewSource = LabelledMarqueeInflationPool.obtainEditable(context);
+            if (editViewSource == null) {
+                editViewSource = LayoutInflater.from(context).inflate(R.layout.layout_editable, this, false);
+            }
         }
         mTextInputLayout = (TextInputLayout) editViewSource.findViewById(R.id.labelled_marquee_edit_text_layout_label_wrapper);
         mTextInputLayout.setId(doGenerateViewId());
         mEditText = (AppCompatEditText) editViewSource.findViewById(R.id.labelled_marquee_edit_text_layout_edit_text);
         mEditText.setId(doGenerateViewId());
-        addView(mTextInputLayout);
-        View marqueeViewSource = LayoutInflater.from(context).inflate(R.layout.layout_marquee, this, false);
-        mTextView = (IconTextView) marqueeViewSource.findViewById(R.id.labelled_marquee_edit_text_layout_marquee_text);
-        mTextView.setId(doGenerateViewId());
-        addView(mTextView, new ViewGroup.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+        if (!mFlatRender) {
+            addView(mTextInputLayout, 0);
+        }
+        if (mInputMask != null) {
+            mEditText.addTextChangedListener(mInputMask);
+        }
         if (mTextWatcher != null) {
             mEditText.addTextChangedListener(mTextWatcher);
         }
+        mEditText.addTextChangedListener(mTextChangeDispatcher);
+        if (mEditText instanceof LabelledMarqueeInputEditText) {
+            ((LabelledMarqueeInputEditText) mEditText).setOnBatchEditListener(mTextChangeDispatcher);
+        }
         mEditText.setImeOptions(EditorInfo.IME_ACTION_DONE);
         mEditText.setSingleLine();
+        LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_INFLATION, start);
+    }
+
+    private void buildMarqueeView(Context context) {
+        if (mFlatRender) {
+            if (mFlatRenderer == null) {
+                mFlatRenderer = new FlatMarqueeRenderer(context);
+            }
+            setWillNotDraw(false);
+            return;
+        }
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+        View marqueeViewSource = isInEditMode() ? null : LabelledMarqueeInflationPool.obtainMarquee(context);
+        if (marqueeViewSource == null) {
+            marqueeViewSource = LayoutInflater.from(context).inflate(R.layout.layout_marquee, this, false);
+        }
+        mTextView = (TextView) marqueeViewSource.findViewById(R.id.labelled_marquee_edit_text_layout_marquee_text);
+        mTextView.setId(doGenerateViewId());
+        mTextView.setSpannableFactory(sNoCopySpannableFactory);
+        mMarqueeClip = new MarqueeClipLayout(context);
+        mMarqueeClip.addView(mTextView, new ViewGroup.LayoutParams(LayoutParams.WRAP_CONTENT,
+                LayoutParams.WRAP_CONTENT));
+        mMarqueeClip.setOnTouchListener(new OnTouchListener() {
+
+            @Override
+            public boolean onTouch(View view, MotionEvent event) {
+                return mTextView.getVisibility() == View.VISIBLE && getGestureDetector().onTouchEvent(event);
+            }
+
+        });
+        addView(mMarqueeClip, new ViewGroup.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+        LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_INFLATION, start);
+    }
+
+    private void ensureEditViews() {
+        if (mEditText != null) {
+            return;
+        }
+        buildEditViews(ResolvedStyle.obtainThemedContext(getContext(), mCurrentCustomStyle));
+        mTextChanged = true;
+        mTextColorChanged = true;
+        mTextStyleChanged = true;
+        mHintChanged = true;
+        mIconChanged = true;
+        mErrorChanged = true;
+        mInputTypeChanged = true;
+        mTextFiltersChanged = true;
+        mStyleColorsChanged = true;
+        applyPendingChanges();
+        wrapFocusChangeListener();
     }
 
     private static synchronized int doGenerateViewId() {
@@ -343,24 +500,42 @@ public class LabelledMarqueeEditText extends FrameLayout {
     }
 
     private void initEditAndMarqueeViews(final boolean animate) {
-        if (mTextChanged || mIconChanged || mTextFiltersChanged || mStyleColorsChanged) {
-            if (mIconGravity == ICON_GRAVITY_RIGHT) {
+        applyPendingChanges();
+        if (mPreferredMode == MODE_MARQUEE) {
+            enableMarqueeMode(mIconSpanCharacter, animate);
+        }
+        else if (mPreferredMode == MODE_EDIT) {
+            enableEditMode(animate);
+        }
+        wrapFocusChangeListener();
+        syncFlatRenderer();
+    }
+
+    private void applyPendingChanges() {
+        if (mTextChanged || mIconChanged || mTextFiltersChanged) {
+            if (mEditText != null && mIconGravity == ICON_GRAVITY_RIGHT) {
                 mEditText.setCompoundDrawablesWithIntrinsicBounds(null, null, mIconDrawable, null);
                 mEditText.setCompoundDrawablePadding(0);
-            } else if (mIconGravity == ICON_GRAVITY_LEFT) {
+            } else if (mEditText != null && mIconGravity == ICON_GRAVITY_LEFT) {
                 mEditText.setCompoundDrawablesWithIntrinsicBounds(mIconDrawable, null, null, null);
                 mEditText.setCompoundDrawablePadding(4);
             }
             setTextFilters();
             setText();
             setTextSize();
-            setLabelColor();
-            setCursorDrawableColor();
-            tintIconWithIconColor();
             mTextChanged = false;
             mIconChanged = false;
             mTextFiltersChanged = false;
+        }
+        if (mStyleColorsChanged) {
+            final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+            setLabelColor();
+            setCursorDrawableColor();
+            setSelectHandleColor();
+            setInputLayoutColors();
+            tintIconWithIconColor();
             mStyleColorsChanged = false;
+            LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_RESTYLE, start);
         }
         if (mTextColorChanged) {
             setTextColor();
@@ -377,92 +552,256 @@ public class LabelledMarqueeEditText extends FrameLayout {
         if (mErrorChanged) {
             setErrorEnabled();
             setError();
+            setInputLayoutColors();
+            mErrorChanged = false;
         }
         if (mInputTypeChanged) {
             setInputType();
             mInputTypeChanged = false;
         }
-        mTextView.setSelected(true);
-        if (mPreferredMode == MODE_MARQUEE) {
-            enableMarqueeMode(mIconCharacter, animate);
+    }
+
+    private void wrapFocusChangeListener() {
+        if (mEditText == null) {
+            return;
         }
-        else if (mPreferredMode == MODE_EDIT) {
-            enableEditMode(animate);
+        final View.OnFocusChangeListener existingListener = mEditText.getOnFocusChangeListener();
+        if (!(existingListener instanceof DisableEditModeOnFocusChangeListener)) {
+            mEditText.setOnFocusChangeListener(
+                    DisableEditModeOnFocusChangeListener.newInstance(this, existingListener)
+            );
         }
-        final GestureDetectorCompat detector = new GestureDetectorCompat(getContext(),
-                new GestureDetector.OnGestureListener() {
+    }
 
-            @Override
-            public boolean onDown(MotionEvent e) {
-                return true;
-            }
+    private GestureDetectorCompat getGestureDetector() {
+        if (mGestureDetector == null) {
+            mGestureDetector = new GestureDetectorCompat(getContext(), new GestureDetector.OnGestureListener() {
 
-            @Override
-            public void onShowPress(MotionEvent e) {}
+                @Override
+                public boolean onDown(MotionEvent e) {
+                    return true;
+                }
 
-            @Override
-            public boolean onSingleTapUp(MotionEvent e) {
-                if (!mEditViaLongPress) {
-                    enableEditMode(false);
+                @Override
+                public void onShowPress(MotionEvent e) {}
+
+                @Override
+                public boolean onSingleTapUp(MotionEvent e) {
+                    if (!mEditViaLongPress) {
+                        enableEditMode(false);
+                    }
+                    return false;
                 }
-                return false;
-            }
 
-            @Override
-            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-                return false;
-            }
+                @Override
+                public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                    return false;
+                }
 
-            @Override
-            public void onLongPress(MotionEvent e) {
-                if (mEditViaLongPress) {
-                    enableEditMode(false);
+                @Override
+                public void onLongPress(MotionEvent e) {
+                    if (mEditViaLongPress) {
+                        enableEditMode(false);
+                    }
+                }
+
+                @Override
+                public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                    return false;
                 }
+
+            });
+        }
+        return mGestureDetector;
+    }
+
+    private void syncFlatRenderer() {
+        if (mFlatRenderer == null) {
+            return;
+        }
+        mFlatRenderer.setLabel(mHint, mBaseColor);
+        mFlatRenderer.setTextAppearance(mTextSize, mTextColor, mTextStyle);
+        mFlatRenderer.setIcon(mIconSpan == null ? null : mIconSpan.getDrawable(), mIconGravity);
+        mFlatRenderer.setError(mErrorEnabled ? mError : null, mErrorColor);
+    }
+
+    private void attachEditViewsIfDetached() {
+        ensureEditViews();
+        if (mFlatRenderer != null && mTextInputLayout.getParent() == null) {
+            removeCallbacks(mDetachEditViewsRunnable);
+            addView(mTextInputLayout);
+        }
+    }
+
+    private boolean isFlatRendering() {
+        return mFlatRenderer != null && (mTextInputLayout == null || mTextInputLayout.getParent() != this);
+    }
+
+    private CharSequence getFlatText() {
+        if (mText == null) {
+            return null;
+        }
+        if (isInputTypePassword()) {
+            return mPasswordTransformation.mask(mText);
+        }
+        if (mTextAllCaps) {
+            final CharSequence allCaps = ALL_CAPS_FILTER.filter(mText, 0, mText.length(), EMPTY_SPANNED, 0, 0);
+            return allCaps == null ? mText : allCaps;
+        }
+        return mText;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (isFlatRendering()) {
+            int height = mFlatRenderer.getDesiredHeight() + getPaddingTop() + getPaddingBottom();
+            setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                    resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+            return;
+        }
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (isFlatRendering()) {
+            mFlatRenderer.draw(canvas, getPaddingLeft(), getPaddingTop(),
+                    getWidth() - getPaddingRight(), getHeight() - getPaddingBottom());
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (isFlatRendering()) {
+            return getGestureDetector().onTouchEvent(event);
+        }
+        return super.onTouchEvent(event);
+    }
+
+    private void setText() {
+        CharSequence text = mText;
+        if (text != null && mTextMaxLength != -1) {
+            text = text.subSequence(0, Math.min(text.length(), mTextMaxLength - ICON_CHARACTER_SECTION_LENGHT));
+        }
+        if (mInputMask != null) {
+            text = mInputMask.format(text);
+        }
+        mText = text;
+        if (mEditText != null) {
+            mEditText.setText(text);
+            mSyncedTextVersion = mTextChangeDispatcher.getVersion();
+            if (text != null) {
+                try {
+                    mEditText.setSelection(text.length());
+                } catch (Throwable ignore) {}
             }
+        }
+        if (mFlatRenderer != null) {
+            mFlatRenderer.setText(getFlatText());
+        }
+        else {
+            setMarqueeText(text, mIconSpanCharacter);
+        }
+    }
 
-            @Override
-            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-                return false;
+    private void setMarqueeText(CharSequence text, CharSequence iconCharacter) {
+        if (mAsyncTextLayout && text != null
+                && text.length() > ASYNC_TEXT_LAYOUT_MIN_LENGTH && !isInputTypePassword() && !isInEditMode()
+                && (mPrecomputedIconCharacter != iconCharacter || !TextUtils.equals(mPrecomputedMarqueeText, text))) {
+            if (mPrecomputingIconCharacter == iconCharacter && TextUtils.equals(mPrecomputingMarqueeText, text)) {
+                return;
             }
+            precomputeMarqueeText(text.toString(), iconCharacter);
+            text = text.subSequence(0, MarqueeTextPrecomputer.getPrefixLength(text, ASYNC_TEXT_LAYOUT_MIN_LENGTH))
+                    + MARQUEE_TEXT_ELLIPSIS;
+        }
+        else {
+            mMarqueeTextGeneration++;
+            mPrecomputingMarqueeText = null;
+            mPrecomputingIconCharacter = null;
+        }
+        applyMarqueeText(text, iconCharacter);
+    }
 
-        });
-        mTextView.setOnTouchListener(new OnTouchListener() {
+    private void precomputeMarqueeText(String text, final CharSequence iconCharacter) {
+        final int generation = ++mMarqueeTextGeneration;
+        mPrecomputingMarqueeText = text;
+        mPrecomputingIconCharacter = iconCharacter;
+        final TextPaint paint = new TextPaint(mTextView.getPaint());
+        MarqueeTextPrecomputer.precompute(text, paint, MARQUEE_TEXT_WINDOW_WIDTHS * mMarqueeClip.getWidth(),
+                MARQUEE_TEXT_WINDOW_LENGTH, new MarqueeTextPrecomputer.Callback() {
 
             @Override
-            public boolean onTouch(View view, MotionEvent event) {
-                return detector.onTouchEvent(event);
+            public void onPrecomputed(String precomputedText) {
+                if (generation != mMarqueeTextGeneration) {
+                    return;
+                }
+                mPrecomputingMarqueeText = null;
+                mPrecomputingIconCharacter = null;
+                mPrecomputedMarqueeText = precomputedText;
+                mPrecomputedIconCharacter = iconCharacter;
+                applyMarqueeText(precomputedText, iconCharacter);
+                restartMarquee();
             }
 
         });
-        final View.OnFocusChangeListener existingListener = mEditText.getOnFocusChangeListener();
-        if (!(existingListener instanceof DisableEditModeOnFocusChangeListener)) {
-            mEditText.setOnFocusChangeListener(
-                    DisableEditModeOnFocusChangeListener.newInstance(this, existingListener)
-            );
+    }
+
+    private void applyMarqueeText(CharSequence text, CharSequence iconCharacter) {
+        final boolean iconOnTheLeft = mIconGravity == ICON_GRAVITY_LEFT;
+        if (mMarqueeText.isSet(text, iconCharacter, iconOnTheLeft)
+                && mMarqueeWindowStart == 0 && mMarqueeWindowWidth == mMarqueeClip.getWidth()) {
+            return;
         }
+        mMarqueeText.set(text, iconCharacter, ICON_LEFT_PADDING, ICON_RIGHT_PADDING, iconOnTheLeft);
+        setMarqueeWindow(0, 0);
     }
 
-    private void setText() {
-        String text = mText;
-        if (text != null && mTextMaxLength != -1) {
-            text = text.substring(0, mTextMaxLength - ICON_CHARACTER_SECTION_LENGHT);
+    private void setMarqueeWindow(int start, float shift) {
+        mMarqueeWindowStart = start;
+        mMarqueeWindowShift = shift;
+        mMarqueeWindowWidth = mMarqueeClip.getWidth();
+        int end = Math.min(mMarqueeText.length(), start + MARQUEE_TEXT_WINDOW_LENGTH);
+        if (mMarqueeWindowWidth > 0) {
+            end = start + mTextView.getPaint().breakText(mMarqueeText, start, end, true,
+                    MARQUEE_TEXT_WINDOW_WIDTHS * mMarqueeWindowWidth, null);
         }
-        mEditText.setText(text);
-        if (text != null) {
-            try {
-                mEditText.setSelection(text.length());
-            } catch (Throwable ignore) {}
+        if (end > start && end < mMarqueeText.length() && Character.isHighSurrogate(mMarqueeText.charAt(end - 1))) {
+            end--;
         }
-        if (isInputTypePassword()) {
-            if (text != null && text.length() > 0) {
-                text = String.format(Locale.US, "%0" + text.length() + "d", 0).replace('0', '*');
-            }
+        mMarqueeWindowEnd = end;
+        mMarqueeWindowText.clearSpans();
+        mMarqueeWindowText.clear();
+        mMarqueeText.appendTo(mMarqueeWindowText, start, end);
+        mPasswordTransformation.setMaskedRegion(Math.max(mMarqueeText.getTextStart() - start, 0),
+                Math.max(mMarqueeText.getTextEnd() - start, 0));
+        mTextView.setText(mMarqueeWindowText, TextView.BufferType.SPANNABLE);
+    }
+
+    private float scrollMarqueeWindow(int offset) {
+        float windowOffset = offset - mMarqueeWindowShift;
+        if (windowOffset < 0) {
+            setMarqueeWindow(0, 0);
+            return offset;
         }
-        if (mIconGravity == ICON_GRAVITY_RIGHT) {
-            mTextView.setText(String.format("%s%s", text == null ? "" : text, mIconCharacter));
-        } else if (mIconGravity == ICON_GRAVITY_LEFT) {
-            mTextView.setText(String.format("%s%s", mIconCharacter, text == null ? "" : text));
+        final Layout layout = mTextView.getLayout();
+        if (windowOffset <= mMarqueeClip.getWidth() || layout == null || layout.getLineCount() == 0) {
+            return windowOffset;
+        }
+        final float skippedWidth = windowOffset - mTextView.getCompoundPaddingLeft();
+        int skipped = layout.getOffsetForHorizontal(0, skippedWidth);
+        while (skipped > 0 && layout.getPrimaryHorizontal(skipped) > skippedWidth) {
+            skipped--;
         }
+        if (skipped > 0 && Character.isLowSurrogate(mMarqueeWindowText.charAt(skipped))) {
+            skipped--;
+        }
+        if (skipped == 0) {
+            return windowOffset;
+        }
+        setMarqueeWindow(mMarqueeWindowStart + skipped, mMarqueeWindowShift + layout.getPrimaryHorizontal(skipped));
+        return offset - mMarqueeWindowShift;
     }
 
     private boolean isInputTypePassword() {
@@ -478,83 +817,119 @@ public class LabelledMarqueeEditText extends FrameLayout {
     }
 
     private void setTextSize() {
-        mEditText.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
-        mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+        if (mEditText != null) {
+            mEditText.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+        }
+        if (mTextView != null) {
+            mTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, mTextSize);
+            mMarqueeWindowWidth = -1;
+        }
     }
 
     private void setTextColor() {
-        mEditText.setTextColor(mTextColor);
-        mTextView.setTextColor(mTextColor);
+        if (mEditText != null) {
+            mEditText.setTextColor(mTextColor);
+        }
+        if (mTextView != null) {
+            mTextView.setTextColor(mTextColor);
+        }
     }
 
     private void setTextStyle() {
-        mEditText.setTypeface(Typeface.create(mEditText.getTypeface(), mTextStyle));
-        mTextView.setTypeface(Typeface.create(mTextView.getTypeface(), mTextStyle));
+        if (mEditText != null) {
+            mEditText.setTypeface(Typeface.create(mEditText.getTypeface(), mTextStyle));
+        }
+        if (mTextView != null) {
+            mTextView.setTypeface(Typeface.create(mTextView.getTypeface(), mTextStyle));
+            mMarqueeWindowWidth = -1;
+        }
     }
 
     private void setHint() {
-        mTextInputLayout.setHint(mHint);
+        if (mTextInputLayout != null) {
+            mTextInputLayout.setHint(mHint);
+        }
     }
 
     private void setLabelColor() {
-        mEditText.setHighlightColor(mHighlightColor);
+        if (mEditText != null) {
+            mEditText.setHighlightColor(mHighlightColor);
+        }
+    }
+
+    private void setInputLayoutColors() {
+        if (mEditText == null) {
+            return;
+        }
+        ViewCompat.setBackgroundTintList(mEditText, mResolvedStyle.underlineColor);
+        TextInputLayoutColors.apply(mTextInputLayout, mResolvedStyle.defaultLabelColor,
+                mResolvedStyle.focusedLabelColor, mErrorColor);
     }
 
     private void setError() {
-        mTextInputLayout.setError(mError);
+        if (mTextInputLayout != null) {
+            mTextInputLayout.setError(mError);
+        }
     }
 
     private void setErrorEnabled() {
-        mTextInputLayout.setErrorEnabled(mErrorEnabled);
+        if (mTextInputLayout != null) {
+            mTextInputLayout.setErrorEnabled(mErrorEnabled);
+        }
     }
 
     private void setCursorDrawableColor() {
-        try {
-            Field fCursorDrawableRes = TextView.class.getDeclaredField("mCursorDrawableRes");
-            fCursorDrawableRes.setAccessible(true);
-            int mCursorDrawableRes = fCursorDrawableRes.getInt(mEditText);
-            final Drawable[] drawables = new Drawable[2];
-            drawables[0] = ContextCompat.getDrawable(mEditText.getContext(), mCursorDrawableRes);
-            drawables[1] = ContextCompat.getDrawable(mEditText.getContext(), mCursorDrawableRes);
-            drawables[0].setColorFilter(mHighlightColor, PorterDuff.Mode.SRC_IN);
-            drawables[1].setColorFilter(mHighlightColor, PorterDuff.Mode.SRC_IN);
-            try {
-                Field fEditor = TextView.class.getDeclaredField("mEditor");
-                fEditor.setAccessible(true);
-                Object editor = fEditor.get(mEditText);
-                Field fCursorDrawable = editor.getClass().getDeclaredField("mCursorDrawable");
-                fCursorDrawable.setAccessible(true);
-                fCursorDrawable.set(editor, drawables);
-            }
-            catch (Throwable ignored) {
-                Field fCursorDrawable = TextView.class.getDeclaredField("mCursorDrawable");
-                fCursorDrawable.setAccessible(true);
-                fCursorDrawable.set(mEditText, drawables);
-            }
-        }
-        catch (Throwable ignored) {
-            Log.d(TAG, "Could not override EditText's cursor drawable color via reflection: "
-                    + ignored.getMessage());
+        if (mEditText == null) {
+            return;
+        }
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+        if (!EditorDrawables.setCursorColor(mEditText, mResolvedStyle.cursorColor)) {
+            LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_REFLECTION_FALLBACK, start);
+        }
+    }
+
+    private void setSelectHandleColor() {
+        if (mEditText == null) {
+            return;
+        }
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+        if (!EditorDrawables.setSelectHandleColor(mEditText, mHighlightColor)) {
+            LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_REFLECTION_FALLBACK, start);
         }
     }
 
     private void setInputType() {
-        mEditText.setInputType(mInputType);
+        if (mEditText != null) {
+            mEditText.setInputType(mInputType);
+        }
+        if (mFlatRenderer != null) {
+            if (mCurrentMode == MODE_MARQUEE) {
+                mFlatRenderer.setText(getFlatText());
+            }
+        }
+        else if (isInputTypePassword()) {
+            mTextView.setTransformationMethod(mPasswordTransformation);
+        }
+        else if (mTextView.getTransformationMethod() == mPasswordTransformation) {
+            mTextView.setTransformationMethod(SingleLineTransformationMethod.getInstance());
+        }
     }
 
     private void setTextFilters() {
         List<InputFilter> editTextFilters = new ArrayList<>();
-        List<InputFilter> textViewFilters = new ArrayList<>();
         if (mTextMaxLength >= 0) {
             editTextFilters.add(new InputFilter.LengthFilter(mTextMaxLength - ICON_CHARACTER_SECTION_LENGHT));
-            textViewFilters.add(new InputFilter.LengthFilter(mTextMaxLength));
         }
         if (mTextAllCaps) {
             editTextFilters.add(new InputFilter.AllCaps());
-            textViewFilters.add(new InputFilter.AllCaps());
         }
-        mEditText.setFilters(editTextFilters.toArray(new InputFilter[editTextFilters.size()]));
-        mTextView.setFilters(textViewFilters.toArray(new InputFilter[editTextFilters.size()]));
+        if (mEditText != null) {
+            mEditText.setFilters(editTextFilters.toArray(new InputFilter[editTextFilters.size()]));
+        }
+        if (mTextView != null) {
+            mTextView.setFilters(mTextAllCaps ? new InputFilter[]{ALL_CAPS_FILTER} : NO_FILTERS);
+            mMarqueeWindowWidth = -1;
+        }
     }
 
     private static final class DisableEditModeOnFocusChangeListener implements View.OnFocusChangeListener {
@@ -582,14 +957,14 @@ public class LabelledMarqueeEditText extends FrameLayout {
             LabelledMarqueeEditText labelledMarqueeEditText = labelledMarqueeEditTextWeakReference.get();
             if (labelledMarqueeEditText != null) {
                 if (!hasFocus) {
+                    LabelledMarqueeScheduler.setLastUnfocused(labelledMarqueeEditText);
                     labelledMarqueeEditText.tintIconWithIconColor();
-                    labelledMarqueeEditText.enableMarqueeMode(labelledMarqueeEditText.getIconCharacter(), false);
+                    labelledMarqueeEditText.enableMarqueeMode(labelledMarqueeEditText.getIconSpanCharacter(), false);
                     labelledMarqueeEditText.invalidate();
                     labelledMarqueeEditText.requestLayout();
                 }
                 else {
                     labelledMarqueeEditText.tintIconWithHighlightColorIfApplicable();
-                    labelledMarqueeEditText.tintSelectorDrawableWithHighlightColor();
                 }
             }
         }
@@ -597,6 +972,7 @@ public class LabelledMarqueeEditText extends FrameLayout {
     }
 
     private void tintIconWithIconColor() {
+        updateIcon();
         setIconColorTemporarily(mIconColor);
     }
 
@@ -607,139 +983,386 @@ public class LabelledMarqueeEditText extends FrameLayout {
     }
 
     private void setIconColorTemporarily(int color) {
-        final int oldIconColor = mIconColor;
-        mIconColor = color;
-        setIcon(mIconKey, false);
+        Drawable iconDrawable = mIconDrawable;
+        if (color != mIconColor && mIconKey != null && !isInEditMode()) {
+            if (mHighlightedIconDrawable == null || mHighlightedIconDrawableColor != color) {
+                mHighlightedIconDrawable = obtainIcon(mIconKey, color,
+                        R.dimen.labelled_marquee_edit_text_default_icon_size_big);
+                mHighlightedIconDrawableColor = color;
+            }
+            iconDrawable = mHighlightedIconDrawable;
+        }
+        if (mEditText == null) {
+            return;
+        }
         if (mIconGravity == ICON_GRAVITY_RIGHT) {
-            mEditText.setCompoundDrawablesWithIntrinsicBounds(null, null, mIconDrawable, null);
+            mEditText.setCompoundDrawablesWithIntrinsicBounds(null, null, iconDrawable, null);
             mEditText.setCompoundDrawablePadding(0);
         } else if (mIconGravity == ICON_GRAVITY_LEFT) {
-            mEditText.setCompoundDrawablesWithIntrinsicBounds(mIconDrawable, null, null, null);
+            mEditText.setCompoundDrawablesWithIntrinsicBounds(iconDrawable, null, null, null);
             mEditText.setCompoundDrawablePadding(4);
         }
-        mIconColor = oldIconColor;
-    }
-
-    private void tintSelectorDrawableWithHighlightColor() {
-        setSelectorDrawableColorTemporarily(mHighlightColor);
-    }
-
-    private void setSelectorDrawableColorTemporarily(int color) {
-        Drawable middleHandle = ContextCompat.getDrawable(mEditText.getContext(),
-                R.drawable.text_select_handle_middle_material);
-        Drawable middleHandleWrapper = DrawableCompat.wrap(middleHandle);
-        DrawableCompat.setTint(middleHandleWrapper, color);
-
-        Drawable leftHandle = ContextCompat.getDrawable(mEditText.getContext(),
-                R.drawable.text_select_handle_left_material);
-        Drawable leftHandleWrapper = DrawableCompat.wrap(leftHandle);
-        DrawableCompat.setTint(leftHandleWrapper, color);
-
-        Drawable rightHandle = ContextCompat.getDrawable(mEditText.getContext(),
-                R.drawable.text_select_handle_right_material);
-        Drawable rightHandleWrapper = DrawableCompat.wrap(rightHandle);
-        DrawableCompat.setTint(rightHandleWrapper, color);
     }
 
     private void enableEditMode(boolean animate) {
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+        final boolean transition = mCurrentMode != MODE_EDIT;
+        attachEditViewsIfDetached();
         if (animate && !isEmpty(true)) {
-            mTextInputLayout.clearAnimation();
-            mTextView.clearAnimation();
-            String text = mEditText.getText().toString();
-            if (isInputTypePassword() && text.length() > 0) {
-                text = String.format(Locale.US, "%0" + text.length() + "d", 0).replace('0', '*');
-            }
-            mTextView.setText(text);
-            mTextView.setVisibility(View.VISIBLE);
-            final AnimationSet fadeIn = new AnimationSet(true);
-            fadeIn.setDuration(500);
-            fadeIn.setInterpolator(new AccelerateInterpolator());
-            fadeIn.addAnimation(new AlphaAnimation(0, 1));
-            final AnimationSet fadeOut = new AnimationSet(true);
-            fadeOut.setDuration(700);
-            fadeOut.setInterpolator(new AccelerateInterpolator());
-            fadeOut.addAnimation(new AlphaAnimation(1, 0));
+            cancelTransitions();
             mTextInputLayout.setVisibility(View.VISIBLE);
-            mTextInputLayout.startAnimation(fadeIn);
-            mTextView.startAnimation(fadeOut);
-            (new Handler()).postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    mAnimationEnded = true;
-                    if (mCurrentMode == MODE_EDIT) {
-                        mTextView.setVisibility(View.INVISIBLE);
-                    }
-                }
-            }, 700);
+            ViewCompat.setAlpha(mTextInputLayout, 0);
+            final ViewPropertyAnimatorCompat fadeIn = ViewCompat.animate(mTextInputLayout).alpha(1)
+                    .setDuration(mTransitionFadeInDuration).setInterpolator(sTransitionInterpolator).withLayer();
+            mPendingTransitionEnd = mEditTransitionEndRunnable;
+            if (mTextView == null) {
+                fadeIn.withEndAction(mEditTransitionEndRunnable);
+            }
+            else {
+                setMarqueeText(mEditText.getText(), null);
+                mTextView.setVisibility(View.VISIBLE);
+                ViewCompat.animate(mTextView).alpha(0).setDuration(mTransitionFadeOutDuration)
+                        .setInterpolator(sTransitionInterpolator).withLayer()
+                        .withEndAction(mEditTransitionEndRunnable);
+            }
         }
         else {
+            cancelTransitions();
             mTextInputLayout.setVisibility(View.VISIBLE);
-            mTextView.setVisibility(View.INVISIBLE);
+            if (mTextView != null) {
+                mTextView.setVisibility(View.INVISIBLE);
+            }
         }
+        mMarqueeAnimator.stop();
         mCurrentMode = MODE_EDIT;
         mEditText.setVisibility(View.VISIBLE);
         mEditText.setEnabled(true);
+        if (transition) {
+            LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_MODE_TRANSITION, start);
+        }
     }
 
     private void enableMarqueeMode(final CharSequence iconCharacter, boolean animate) {
-        if (mEditText.getText().toString().trim().isEmpty()) {
+        if (TextUtils.getTrimmedLength(getTextSequence()) == 0) {
             if (mPreferredMode == MODE_MARQUEE) {
                 enableEditMode(animate);
             }
             return;
         }
-        if (animate && !isEmpty(true)) {
-            mTextInputLayout.clearAnimation();
-            mTextView.clearAnimation();
-            final AnimationSet fadeIn = new AnimationSet(true);
-            {
-                fadeIn.setDuration(500);
-                fadeIn.setInterpolator(new AccelerateInterpolator());
-                fadeIn.addAnimation(new AlphaAnimation(0, 1));
-            }
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+        final boolean transition = mCurrentMode != MODE_MARQUEE;
+        if (animate && !isEmpty(true) && mTextInputLayout != null) {
+            cancelTransitions();
             mTextInputLayout.setVisibility(View.VISIBLE);
-            mTextInputLayout.startAnimation(fadeIn);
-            (new Handler()).postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    mAnimationEnded = true;
-                }
-            }, 500);
-        }
-        else {
+            ViewCompat.setAlpha(mTextInputLayout, 0);
+            mPendingTransitionEnd = mMarqueeTransitionEndRunnable;
+            ViewCompat.animate(mTextInputLayout).alpha(1).setDuration(mTransitionFadeInDuration)
+                    .setInterpolator(sTransitionInterpolator).withLayer()
+                    .withEndAction(mMarqueeTransitionEndRunnable);
+        }
+        else if (mTextInputLayout != null) {
+            cancelTransitions();
             mTextInputLayout.setVisibility(View.VISIBLE);
         }
         mCurrentMode = MODE_MARQUEE;
-        mEditText.setVisibility(View.INVISIBLE);
-        mEditText.setEnabled(false);
-        mTextView.setVisibility(View.VISIBLE);
-        mTextView.setSelected(true);
-        mText = mEditText.getText().toString();
-        String text = mText;
-        if (isInputTypePassword()) {
-            text = String.format(Locale.US, "%0" + text.length() + "d", 0).replace('0', '*');
+        if (mEditText != null) {
+            mEditText.setVisibility(View.INVISIBLE);
+            mEditText.setEnabled(false);
+            syncTextFromEditText();
         }
-        if (mIconGravity == ICON_GRAVITY_RIGHT) {
-            mTextView.setText(String.format("%s%s", text, iconCharacter));
-        } else if (mIconGravity == ICON_GRAVITY_LEFT) {
-            mTextView.setText(String.format("%s%s", iconCharacter, text));
+        if (mFlatRenderer != null) {
+            mFlatRenderer.setText(getFlatText());
+            post(mDetachEditViewsRunnable);
+            invalidate();
+        }
+        else {
+            mTextView.setVisibility(View.VISIBLE);
+            setMarqueeText(mText, iconCharacter);
+        }
+        restartMarquee();
+        if (transition) {
+            LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_MODE_TRANSITION, start);
+        }
+    }
+
+    private void restartMarquee() {
+        if (mCurrentMode != MODE_MARQUEE) {
+            mMarqueeAnimator.stop();
+        }
+        else if (isVisibleToUser()) {
+            resetMarqueeWindow();
+            mMarqueeAnimator.start();
+        }
+        else {
+            mMarqueeAnimator.startPaused();
+        }
+    }
+
+    private void updateMarqueeVisibility() {
+        final boolean visible = isVisibleToUser();
+        if (!visible && mPendingTransitionEnd != null) {
+            cancelTransitions();
+        }
+        if (mCurrentMode != MODE_MARQUEE) {
+            mMarqueeAnimator.stop();
+        }
+        else if (visible) {
+            if (mMarqueeAnimator.isPaused()) {
+                resetMarqueeWindow();
+                mMarqueeAnimator.resume();
+            }
+        }
+        else {
+            mMarqueeAnimator.pause();
+        }
+    }
+
+    private void resetMarqueeWindow() {
+        if (mFlatRenderer == null && mMarqueeWindowWidth != mMarqueeClip.getWidth()) {
+            setMarqueeWindow(0, 0);
+        }
+    }
+
+    private boolean isVisibleToUser() {
+        return ViewCompat.isAttachedToWindow(this) && hasWindowFocus() && isShown()
+                && getGlobalVisibleRect(mVisibleRect);
+    }
+
+    private void cancelTransitions() {
+        if (mTextInputLayout != null) {
+            ViewCompat.animate(mTextInputLayout).cancel();
+            ViewCompat.setAlpha(mTextInputLayout, 1);
+        }
+        if (mTextView != null) {
+            ViewCompat.animate(mTextView).cancel();
+        }
+        if (mPendingTransitionEnd != null) {
+            mPendingTransitionEnd.run();
+        }
+        if (mTextView != null) {
+            ViewCompat.setAlpha(mTextView, 1);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+        updateMarqueeVisibility();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+        cancelTransitions();
+        mMarqueeAnimator.pause();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateMarqueeVisibility();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (!ViewCompat.isAttachedToWindow(this)) {
+            return;
+        }
+        updateMarqueeVisibility();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateMarqueeVisibility();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updateMarqueeVisibility();
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        if (width != oldWidth) {
+            restartMarquee();
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        savedState.text = getText();
+        savedState.selectionStart = mEditText == null ? -1 : mEditText.getSelectionStart();
+        savedState.selectionEnd = mEditText == null ? -1 : mEditText.getSelectionEnd();
+        savedState.preferredMode = mPreferredMode;
+        savedState.currentMode = mCurrentMode;
+        savedState.error = getError();
+        savedState.errorEnabled = mErrorEnabled;
+        savedState.customStyle = mCurrentCustomStyle;
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        mText = savedState.text;
+        mTextChanged = true;
+        mPreferredMode = savedState.preferredMode;
+        mErrorEnabled = savedState.errorEnabled;
+        if (mErrorEnabled) {
+            mError = savedState.error;
+        }
+        else {
+            mError = "";
+            mErrorCached = savedState.error;
+        }
+        mErrorChanged = true;
+        if (savedState.customStyle != mCurrentCustomStyle) {
+            mCurrentCustomStyle = savedState.customStyle;
+            retrieveThemeAttributeValues(getContext());
+            mStyleColorsChanged = true;
+        }
+        mAnimationEnded = true;
+        reloadEditAndMarqueeViews();
+        if (savedState.currentMode == MODE_EDIT && mCurrentMode != MODE_EDIT) {
+            enableEditMode(false);
+            mEditText.requestFocus();
+        }
+        if (mEditText != null && savedState.selectionStart >= 0) {
+            final int length = mEditText.length();
+            mEditText.setSelection(Math.min(savedState.selectionStart, length),
+                    Math.min(savedState.selectionEnd, length));
+        }
+    }
+
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    private final class MarqueeTarget implements MarqueeAnimator.Target {
+
+        @Override
+        public View getHost() {
+            return LabelledMarqueeEditText.this;
+        }
+
+        @Override
+        public int getScrollRange() {
+            if (mFlatRenderer != null) {
+                return isFlatRendering()
+                        ? mFlatRenderer.getScrollRange(getPaddingLeft(), getWidth() - getPaddingRight()) : 0;
+            }
+            Layout layout = mTextView.getLayout();
+            if (layout == null || layout.getLineCount() == 0) {
+                return mMarqueeWindowStart > 0 ? Integer.MAX_VALUE : 0;
+            }
+            if (mMarqueeWindowEnd < mMarqueeText.length()) {
+                return Integer.MAX_VALUE;
+            }
+            return (int) Math.ceil(mMarqueeWindowShift + layout.getLineWidth(0)) - (mMarqueeClip.getWidth()
+                    - mTextView.getCompoundPaddingLeft() - mTextView.getCompoundPaddingRight());
+        }
+
+        @Override
+        public void onScrollChanged(int offset, boolean running) {
+            if (mFlatRenderer == null) {
+                mMarqueeClip.setScroll(scrollMarqueeWindow(offset), running);
+                return;
+            }
+            final boolean wasRunning = mFlatRenderer.isScrolling();
+            mFlatRenderer.setScroll(offset, running);
+            if (running && wasRunning) {
+                mFlatRenderer.getTextBounds(getPaddingLeft(), getPaddingTop(), getWidth() - getPaddingRight(),
+                        getHeight() - getPaddingBottom(), mFlatTextBounds);
+                invalidate(mFlatTextBounds);
+            }
+            else {
+                invalidate();
+            }
+        }
+
+    }
+
+    private void syncTextFromEditText() {
+        final long version = mTextChangeDispatcher.getVersion();
+        if (version != mSyncedTextVersion) {
+            mText = mEditText.getText().toString();
+            mSyncedTextVersion = version;
         }
     }
 
     private boolean isEmpty(boolean trim) {
-        return mText == null || (trim ? mText.trim().isEmpty() : mText.isEmpty());
+        return mText == null || (trim ? TextUtils.getTrimmedLength(mText) == 0 : mText.length() == 0);
     }
 
     public String getText() {
+        if (mEditText == null) {
+            return mText == null ? "" : mText.toString();
+        }
         return mEditText.getText().toString();
     }
 
+    CharSequence getTextSequence() {
+        if (mEditText == null) {
+            return mText == null ? "" : mText;
+        }
+        return mEditText.getText();
+    }
+
+    CharSequence getTextSnapshot() {
+        if (mEditText != null) {
+            syncTextFromEditText();
+        }
+        return mText == null ? "" : mText;
+    }
+
     public void setText(String text) {
         mText = text;
         mTextChanged = true;
         reloadEditAndMarqueeViews();
     }
 
+    public String getUnmaskedText() {
+        return mInputMask == null ? getText() : mInputMask.unmask(getText());
+    }
+
+    public String getInputMask() {
+        return mInputMask == null ? null : mInputMask.getPattern();
+    }
+
+    public void setInputMask(String pattern) throws IllegalArgumentException {
+        final InputMask inputMask = pattern == null || pattern.isEmpty() ? null : new InputMask(pattern);
+        if (mEditText != null) {
+            if (mInputMask != null) {
+                mEditText.removeTextChangedListener(mInputMask);
+            }
+            if (inputMask != null) {
+                mEditText.addTextChangedListener(inputMask);
+            }
+            syncTextFromEditText();
+        }
+        mInputMask = inputMask;
+        mTextChanged = true;
+        reloadEditAndMarqueeViews();
+    }
+
     public int getTextColor() {
         return mTextColor;
     }
@@ -786,12 +1409,42 @@ public class LabelledMarqueeEditText extends FrameLayout {
         return mIconKey;
     }
 
+    /**
+     * @deprecated the widget shows cached bitmaps of its icon, so this builds a new {@link IconDrawable} on every
+     * call. Use {@link #getIconAsDrawable()} to get the drawable the widget actually shows.
+     */
+    @Deprecated
     public IconDrawable getIconDrawable() {
+        if (mIconKey == null || isInEditMode()) {
+            return mNullIconDrawable;
+        }
+        return new IconDrawable(getContext(), mIconKey)
+                .color(mIconColor).sizeRes(R.dimen.labelled_marquee_edit_text_default_icon_size_big);
+    }
+
+    public Drawable getIconAsDrawable() {
         return mIconDrawable;
     }
 
     public CharSequence getIconCharacter() {
-        return mIconCharacter;
+        if (mIconKey == null || isInEditMode()) {
+            return "";
+        }
+        String iconCharacter = String.format(getResources()
+                        .getString(R.string.labelled_marquee_edit_text_layout_icon_definition_template),
+                mIconKey, String.format("#%06X", (0xFFFFFF & mIconColor)),
+                "@dimen/labelled_marquee_edit_text_default_icon_size_small");
+        if (mIconGravity == ICON_GRAVITY_RIGHT) {
+            iconCharacter = "   " + iconCharacter;
+        }
+        else if (mIconGravity == ICON_GRAVITY_LEFT) {
+            iconCharacter = "  " + iconCharacter + "   ";
+        }
+        return iconCharacter;
+    }
+
+    CharSequence getIconSpanCharacter() {
+        return mIconSpanCharacter;
     }
 
     public void setIcon(String iconKey) {
@@ -800,28 +1453,48 @@ public class LabelledMarqueeEditText extends FrameLayout {
 
     private void setIcon(String iconKey, boolean shouldReload) {
         mIconKey = iconKey;
-        if (mIconKey == null || isInEditMode()) {
-            mIconDrawable = mNullIconDrawable;
-            mIconCharacter = "";
-        } else {
-            mIconDrawable = new IconDrawable(getContext(), mIconKey)
-                    .color(mIconColor).sizeRes(R.dimen.labelled_marquee_edit_text_default_icon_size_big);
-            mIconCharacter = String.format(getResources()
-                            .getString(R.string.labelled_marquee_edit_text_layout_icon_definition_template),
-                    mIconKey, String.format("#%06X", (0xFFFFFF & mIconColor)),
-                    "@dimen/labelled_marquee_edit_text_default_icon_size_small");
-            if (mIconGravity == ICON_GRAVITY_RIGHT) {
-                mIconCharacter = "   " + mIconCharacter;
-            } else if (mIconGravity == ICON_GRAVITY_LEFT) {
-                mIconCharacter = "  " + mIconCharacter + "   ";
-            }
-        }
+        updateIcon();
         if (shouldReload) {
             mIconChanged = true;
             reloadEditAndMarqueeViews();
         }
     }
 
+    private void updateIcon() {
+        if (mIconKey == null || isInEditMode()) {
+            mIconDrawable = mNullIconDrawable;
+            mIconSpan = null;
+            mIconSpanCharacter = "";
+            mIconDrawableKey = null;
+            return;
+        }
+        if (mIconKey.equals(mIconDrawableKey) && mIconDrawableColor == mIconColor) {
+            return;
+        }
+        mIconDrawable = obtainIcon(mIconKey, mIconColor, R.dimen.labelled_marquee_edit_text_default_icon_size_big);
+        mIconSpan = new MarqueeIconSpan(obtainIcon(mIconKey, mIconColor,
+                R.dimen.labelled_marquee_edit_text_default_icon_size_small), getResources()
+                .getDimensionPixelSize(R.dimen.labelled_marquee_edit_text_default_icon_size_small));
+        SpannableString iconCharacter = new SpannableString(ICON_PLACEHOLDER);
+        iconCharacter.setSpan(mIconSpan, 0, ICON_PLACEHOLDER.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        mIconSpanCharacter = iconCharacter;
+        mIconDrawableKey = mIconKey;
+        mIconDrawableColor = mIconColor;
+    }
+
+    private Drawable obtainIcon(String iconKey, int color, int sizeRes) {
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
+        if (start == 0) {
+            return LabelledMarqueeIconCache.obtain(getContext(), iconKey, color, sizeRes);
+        }
+        final int missCount = LabelledMarqueeIconCache.missCount();
+        final Drawable icon = LabelledMarqueeIconCache.obtain(getContext(), iconKey, color, sizeRes);
+        if (LabelledMarqueeIconCache.missCount() != missCount) {
+            LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_ICON_CREATION, start);
+        }
+        return icon;
+    }
+
     public int getErrorColor() {
         return mErrorColor;
     }
@@ -858,14 +1531,8 @@ public class LabelledMarqueeEditText extends FrameLayout {
         else {
             mError = mErrorCached;
         }
-//        if (mErrorEnabled) {
-            mText = mEditText.getText().toString();
-            setCustomStyle(mCurrentCustomStyle);
-//        }
-//        else {
-//            mErrorChanged = true;
-//            reloadEditAndMarqueeViews();
-//        }
+        mErrorChanged = true;
+        reloadEditAndMarqueeViews();
     }
 
     public int getPreferredMode() {
@@ -901,6 +1568,31 @@ public class LabelledMarqueeEditText extends FrameLayout {
         reloadEditAndMarqueeViews();
     }
 
+    public boolean isAsyncTextLayout() {
+        return mAsyncTextLayout;
+    }
+
+    public void setAsyncTextLayout(boolean asyncTextLayout) {
+        mAsyncTextLayout = asyncTextLayout;
+    }
+
+    public char getPasswordMaskCharacter() {
+        return mPasswordTransformation.getMaskCharacter();
+    }
+
+    public void setPasswordMaskCharacter(char maskCharacter) {
+        mPasswordTransformation.setMaskCharacter(maskCharacter);
+        if (isInputTypePassword()) {
+            if (mFlatRenderer != null) {
+                mFlatRenderer.setText(getFlatText());
+                invalidate();
+            }
+            else {
+                mTextView.setText(mMarqueeWindowText, TextView.BufferType.SPANNABLE);
+            }
+        }
+    }
+
     public int getTextMaxLength() {
         return mTextMaxLength;
     }
@@ -926,43 +1618,252 @@ public class LabelledMarqueeEditText extends FrameLayout {
 
     public void setCustomStyle(int customStyle) {
         mCurrentCustomStyle = customStyle;
-        Context context = getContext();
-        Resources.Theme theme = overrideThemeWithCustomStyle(context, mCurrentCustomStyle);
-        final TypedArray themeAttributes = theme.obtainStyledAttributes(mAttrs, new int[]{
-                R.attr.baseColor, R.attr.highlightColor, R.attr.iconColor, R.attr.errorColor
-        }, 0, 0);
-        retrieveThemeAttributeValues(themeAttributes);
-        removeAllViews();
-        buildEditAndMarqueeViews(context);
-        mTextChanged = true;
-        mTextColorChanged = true;
-        mTextStyleChanged = true;
-        mHintChanged = true;
-        mIconChanged = true;
-        mErrorChanged = true;
-        mInputTypeChanged = true;
-        mTextFiltersChanged = true;
+        retrieveThemeAttributeValues(getContext());
         mStyleColorsChanged = true;
-        initEditAndMarqueeViews(true);
-        resetContextTheme(theme);
-        invalidate();
-        requestLayout();
+        reloadEditAndMarqueeViews();
     }
 
     public void setTextChangedListener(TextWatcher textWatcher) {
-        if (textWatcher != null) {
-            mEditText.addTextChangedListener(textWatcher);
-        } else if (mTextWatcher != null) {
-            mEditText.removeTextChangedListener(mTextWatcher);
+        if (mEditText != null) {
+            if (textWatcher != null) {
+                mEditText.addTextChangedListener(textWatcher);
+            } else if (mTextWatcher != null) {
+                mEditText.removeTextChangedListener(mTextWatcher);
+            }
         }
         mTextWatcher = textWatcher;
         mPreferredMode = MODE_EDIT;
     }
 
+    public void addOnValueChangeListener(OnValueChangeListener listener) {
+        addOnValueChangeListener(listener, DELIVERY_IMMEDIATE, 0);
+    }
+
+    public void addOnValueChangeListener(OnValueChangeListener listener, int delivery, long windowMillis)
+            throws IllegalArgumentException {
+        if (listener == null) {
+            throw new IllegalArgumentException("LabelledMarqueeEditText doesn't accept a null value change listener.");
+        }
+        if (delivery != DELIVERY_IMMEDIATE && delivery != DELIVERY_DEBOUNCE && delivery != DELIVERY_THROTTLE) {
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "LabelledMarqueeEditText doesn't support this delivery (%d).", delivery));
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "LabelledMarqueeEditText doesn't support a negative delivery window (%d).", windowMillis));
+        }
+        mTextChangeDispatcher.add(listener, delivery, windowMillis);
+    }
+
+    public void removeOnValueChangeListener(OnValueChangeListener listener) {
+        mTextChangeDispatcher.remove(listener);
+    }
+
+    public interface OnValueChangeListener {
+
+        void onValueChanged(LabelledMarqueeEditText field, String value);
+
+    }
+
+    public void addValidator(LabelledMarqueeValidator validator) throws IllegalArgumentException {
+        if (validator == null) {
+            throw new IllegalArgumentException("LabelledMarqueeEditText doesn't accept a null validator.");
+        }
+        mValidators.add(validator);
+    }
+
+    public void removeValidator(LabelledMarqueeValidator validator) {
+        mValidators.remove(validator);
+    }
+
+    public int getValidationErrorStyle() {
+        return mValidationErrorStyle;
+    }
+
+    public void setValidationErrorStyle(int customStyle) {
+        mValidationErrorStyle = customStyle;
+    }
+
+    public void validate(LabelledMarqueeValidation.Listener listener) {
+        LabelledMarqueeValidation.validate(listener, this);
+    }
+
+    LabelledMarqueeValidator[] getValidators() {
+        return mValidators.toArray(new LabelledMarqueeValidator[mValidators.size()]);
+    }
+
+    int nextValidationGeneration() {
+        return ++mValidationGeneration;
+    }
+
+    int getValidationGeneration() {
+        return mValidationGeneration;
+    }
+
+    void applyValidationResult(String error) {
+        final boolean valid = error == null;
+        beginUpdate();
+        if (!valid) {
+            if (!mErrorEnabled) {
+                setErrorEnabled(true);
+            }
+            if (!error.equals(mError)) {
+                setError(error);
+            }
+        }
+        else if (mErrorEnabled && mValidationError != null && mValidationError.equals(mError)) {
+            setErrorEnabled(false);
+        }
+        mValidationError = error;
+        if (mValidationErrorStyle != -1) {
+            if (!valid && mCurrentCustomStyle != mValidationErrorStyle) {
+                mValidStyle = mCurrentCustomStyle;
+                setCustomStyle(mValidationErrorStyle);
+            }
+            else if (valid && mCurrentCustomStyle == mValidationErrorStyle) {
+                setCustomStyle(mValidStyle);
+            }
+        }
+        endUpdate();
+    }
+
+    public void bind(String text) {
+        bind(text, null);
+    }
+
+    public void bind(String text, String error) {
+        beginUpdate();
+        setText(text);
+        setErrorEnabled(error != null && !error.trim().isEmpty());
+        setError(error);
+        endUpdate();
+    }
+
+    public void recycle() {
+        beginUpdate();
+        cancelTransitions();
+        mMarqueeAnimator.stop();
+        if (mEditText != null) {
+            if (mEditText.hasFocus()) {
+                mEditText.clearFocus();
+            }
+            if (mTextWatcher != null) {
+                mEditText.removeTextChangedListener(mTextWatcher);
+            }
+            mEditText.setOnFocusChangeListener(null);
+        }
+        mTextWatcher = null;
+        mTextChangeDispatcher.clear();
+        mValidationGeneration++;
+        mValidationError = null;
+        LabelledMarqueeScheduler.forget(this);
+        mAnimationEnded = true;
+        mPreferredMode = mInitialPreferredMode;
+        mValidStyle = mInitialCustomStyle;
+        if (mCurrentCustomStyle != mInitialCustomStyle) {
+            mCurrentCustomStyle = mInitialCustomStyle;
+            retrieveThemeAttributeValues(getContext());
+            mStyleColorsChanged = true;
+        }
+        mErrorEnabled = false;
+        mError = "";
+        mErrorCached = null;
+        mErrorChanged = true;
+        mText = "";
+        mTextChanged = true;
+        reloadEditAndMarqueeViews();
+        endUpdate();
+    }
+
+    public void beginUpdate() {
+        mUpdateDepth++;
+    }
+
+    public void endUpdate() {
+        if (mUpdateDepth == 0) {
+            throw new IllegalStateException("LabelledMarqueeEditText.endUpdate() called without a matching beginUpdate().");
+        }
+        mUpdateDepth--;
+        if (mUpdateDepth == 0 && mReloadPending) {
+            reloadEditAndMarqueeViews();
+        }
+    }
+
     public void reloadEditAndMarqueeViews() {
+        if (mUpdateDepth > 0) {
+            mReloadPending = true;
+            return;
+        }
+        mReloadPending = false;
+        final long start = LabelledMarqueeMetrics.start(mMetricsListener);
         initEditAndMarqueeViews(!mAnimationEnded);
         invalidate();
         requestLayout();
+        LabelledMarqueeMetrics.end(this, mMetricsListener, LabelledMarqueeMetrics.EVENT_RELOAD, start);
+    }
+
+    public LabelledMarqueeMetrics.Listener getMetricsListener() {
+        return mMetricsListener;
+    }
+
+    public void setMetricsListener(LabelledMarqueeMetrics.Listener metricsListener) {
+        mMetricsListener = metricsListener;
+    }
+
+    static class SavedState extends BaseSavedState {
+
+        String text;
+        int selectionStart;
+        int selectionEnd;
+        int preferredMode;
+        int currentMode;
+        String error;
+        boolean errorEnabled;
+        int customStyle;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            text = in.readString();
+            selectionStart = in.readInt();
+            selectionEnd = in.readInt();
+            preferredMode = in.readInt();
+            currentMode = in.readInt();
+            error = in.readString();
+            errorEnabled = in.readInt() != 0;
+            customStyle = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeString(text);
+            out.writeInt(selectionStart);
+            out.writeInt(selectionEnd);
+            out.writeInt(preferredMode);
+            out.writeInt(currentMode);
+            out.writeString(error);
+            out.writeInt(errorEnabled ? 1 : 0);
+            out.writeInt(customStyle);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+
+        };
+
     }
 
 }
@@ -0,0 +1,114 @@
+package com.github.guilhermesgb.marqueeto;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+
+public final class LabelledMarqueeForm {
+
+    public interface Mapper<T> {
+
+        String read(T record, String key);
+
+        void write(T record, String key, CharSequence value);
+
+    }
+
+    private final ArrayList<String> mKeys = new ArrayList<>();
+    private final ArrayList<LabelledMarqueeEditText> mFields = new ArrayList<>();
+
+    public LabelledMarqueeForm put(String key, LabelledMarqueeEditText field) throws IllegalArgumentException {
+        if (key == null || field == null) {
+            throw new IllegalArgumentException("LabelledMarqueeForm doesn't accept null keys or fields.");
+        }
+        final int index = mKeys.indexOf(key);
+        if (index != -1) {
+            mFields.set(index, field);
+        }
+        else {
+            mKeys.add(key);
+            mFields.add(field);
+        }
+        return this;
+    }
+
+    public LabelledMarqueeEditText get(String key) {
+        final int index = mKeys.indexOf(key);
+        return index == -1 ? null : mFields.get(index);
+    }
+
+    public void remove(String key) {
+        final int index = mKeys.indexOf(key);
+        if (index != -1) {
+            mKeys.remove(index);
+            mFields.remove(index);
+        }
+    }
+
+    public int size() {
+        return mFields.size();
+    }
+
+    public void bind(Map<String, String> values) {
+        beginUpdate();
+        for (int index = 0; index < mFields.size(); index++) {
+            mFields.get(index).setText(values.get(mKeys.get(index)));
+        }
+        endUpdate();
+    }
+
+    public <T> void bind(T record, Mapper<T> mapper) {
+        beginUpdate();
+        for (int index = 0; index < mFields.size(); index++) {
+            mFields.get(index).setText(mapper.read(record, mKeys.get(index)));
+        }
+        endUpdate();
+    }
+
+    public void read(Map<String, CharSequence> values) {
+        for (int index = 0; index < mFields.size(); index++) {
+            values.put(mKeys.get(index), mFields.get(index).getTextSnapshot());
+        }
+    }
+
+    public <T> void read(T record, Mapper<T> mapper) {
+        for (int index = 0; index < mFields.size(); index++) {
+            mapper.write(record, mKeys.get(index), mFields.get(index).getTextSnapshot());
+        }
+    }
+
+    public void setMode(int mode) throws IllegalArgumentException {
+        if (mode != LabelledMarqueeEditText.MODE_EDIT && mode != LabelledMarqueeEditText.MODE_MARQUEE) {
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "LabelledMarqueeForm doesn't support this mode (%d).", mode));
+        }
+        beginUpdate();
+        for (int index = 0; index < mFields.size(); index++) {
+            mFields.get(index).setMode(mode);
+        }
+        endUpdate();
+    }
+
+    public void validate(LabelledMarqueeValidation.Listener listener) {
+        LabelledMarqueeValidation.validate(listener, mFields);
+    }
+
+    public void recycle() {
+        for (int index = 0; index < mFields.size(); index++) {
+            mFields.get(index).recycle();
+        }
+    }
+
+    private void beginUpdate() {
+        for (int index = 0; index < mFields.size(); index++) {
+            mFields.get(index).beginUpdate();
+        }
+    }
+
+    private void endUpdate() {
+        for (int index = 0; index < mFields.size(); index++) {
+            mFields.get(index).endUpdate();
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.support.v4.util.LruCache;
+import android.util.TypedValue;
+
+import com.joanzapata.iconify.Icon;
+import com.joanzapata.iconify.IconDrawable;
+
+import static android.util.TypedValue.COMPLEX_UNIT_DIP;
+
+public final class LabelledMarqueeIconCache {
+
+    private static final int DEFAULT_MAX_SIZE_IN_BYTES = 2 * 1024 * 1024;
+
+    private static final LruCache<IconKey, Bitmap> sBitmaps = new LruCache<IconKey, Bitmap>(DEFAULT_MAX_SIZE_IN_BYTES) {
+
+        @Override
+        protected int sizeOf(IconKey key, Bitmap bitmap) {
+            return bitmap.getRowBytes() * bitmap.getHeight();
+        }
+
+    };
+    private static final IconKey sLookupKey = new IconKey();
+    private static IconDrawable sNullIconDrawable;
+
+    private LabelledMarqueeIconCache() {}
+
+    static synchronized Drawable obtain(Context context, String iconKey, int color, int sizeRes) {
+        final Resources resources = context.getResources();
+        final int size = resources.getDimensionPixelSize(sizeRes);
+        sLookupKey.set(iconKey, color, size, resources.getDisplayMetrics().densityDpi);
+        Bitmap bitmap = sBitmaps.get(sLookupKey);
+        if (bitmap == null) {
+            bitmap = render(context, iconKey, color, size);
+            sBitmaps.put(sLookupKey.copy(), bitmap);
+        }
+        return new BitmapDrawable(resources, bitmap);
+    }
+
+    static synchronized IconDrawable obtainNullIcon(Context context, Icon nullIcon) {
+        if (sNullIconDrawable == null) {
+            final Context applicationContext = context.getApplicationContext();
+            sNullIconDrawable = new IconDrawable(applicationContext, nullIcon) {
+
+                private int width, height;
+
+                public IconDrawable adjustBounds() {
+                    this.width = (int) TypedValue.applyDimension(COMPLEX_UNIT_DIP, 5,
+                            applicationContext.getResources().getDisplayMetrics());
+                    height = applicationContext.getResources().getDimensionPixelSize(R.dimen
+                            .labelled_marquee_edit_text_default_icon_size_big);
+                    setBounds(0, 0, width, height);
+                    invalidateSelf();
+                    return this;
+                }
+
+                @Override
+                public int getIntrinsicWidth() {
+                    return this.width;
+                }
+
+                @Override
+                public int getIntrinsicHeight() {
+                    return this.height;
+                }
+
+            }.adjustBounds();
+        }
+        return sNullIconDrawable;
+    }
+
+    private static Bitmap render(Context context, String iconKey, int color, int size) {
+        IconDrawable iconDrawable = new IconDrawable(context.getApplicationContext(), iconKey)
+                .color(color).sizePx(size);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        iconDrawable.setBounds(0, 0, size, size);
+        iconDrawable.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    public static synchronized int hitCount() {
+        return sBitmaps.hitCount();
+    }
+
+    public static synchronized int missCount() {
+        return sBitmaps.missCount();
+    }
+
+    public static synchronized int evictionCount() {
+        return sBitmaps.evictionCount();
+    }
+
+    public static synchronized int sizeInBytes() {
+        return sBitmaps.size();
+    }
+
+    public static synchronized void trimToSize(int maxSizeInBytes) {
+        sBitmaps.trimToSize(maxSizeInBytes);
+    }
+
+    public static synchronized void clear() {
+        sBitmaps.evictAll();
+    }
+
+    private static final class IconKey {
+
+        private String iconKey;
+        private int color;
+        private int size;
+        private int density;
+
+        private void set(String iconKey, int color, int size, int density) {
+            this.iconKey = iconKey;
+            this.color = color;
+            this.size = size;
+            this.density = density;
+        }
+
+        private IconKey copy() {
+            IconKey copy = new IconKey();
+            copy.set(iconKey, color, size, density);
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof IconKey)) {
+                return false;
+            }
+            IconKey that = (IconKey) other;
+            return color == that.color && size == that.size && density == that.density
+                    && iconKey.equals(that.iconKey);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = iconKey.hashCode();
+            result = 31 * result + color;
+            result = 31 * result + size;
+            result = 31 * result + density;
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.os.Looper;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+
+public final class LabelledMarqueeInflationPool {
+
+    public static final int DEFAULT_CAPACITY = 8;
+
+    private static final HashMap<Resources.Theme, Pool> sPools = new HashMap<>();
+    private static int sCapacity = DEFAULT_CAPACITY;
+    private static boolean sCallbacksRegistered;
+
+    private LabelledMarqueeInflationPool() {}
+
+    public static void prefetch(Context context, int count) {
+        prefetch(context, -1, count);
+    }
+
+    public static void prefetch(Context context, int customStyle, int count) {
+        checkMainThread();
+        registerCallbacks(context);
+        Context themedContext = ResolvedStyle.obtainThemedContext(context, customStyle);
+        Pool pool = sPools.get(themedContext.getTheme());
+        if (pool == null) {
+            pool = new Pool(themedContext);
+            sPools.put(themedContext.getTheme(), pool);
+        }
+        pool.prefetch(Math.min(count, sCapacity));
+    }
+
+    public static int getCapacity() {
+        return sCapacity;
+    }
+
+    public static void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Inflation pool capacity must not be negative: " + capacity);
+        }
+        checkMainThread();
+        sCapacity = capacity;
+        for (Pool pool : sPools.values()) {
+            pool.trimToSize(capacity);
+        }
+    }
+
+    public static void trimMemory(int level) {
+        checkMainThread();
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            clear();
+        }
+        else {
+            for (Pool pool : sPools.values()) {
+                pool.trimToSize(pool.size() / 2);
+            }
+        }
+    }
+
+    public static void clear() {
+        checkMainThread();
+        sPools.clear();
+    }
+
+    static View obtainEditable(Context themedContext) {
+        return obtain(themedContext, R.layout.layout_editable);
+    }
+
+    static View obtainMarquee(Context themedContext) {
+        return obtain(themedContext, R.layout.layout_marquee);
+    }
+
+    private static View obtain(Context themedContext, int layoutRes) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            return null;
+        }
+        Pool pool = sPools.get(themedContext.getTheme());
+        if (pool == null || pool.mContext != themedContext) {
+            return null;
+        }
+        return pool.poll(layoutRes);
+    }
+
+    private static void registerCallbacks(Context context) {
+        if (sCallbacksRegistered) {
+            return;
+        }
+        Context applicationContext = context.getApplicationContext();
+        if (applicationContext instanceof Application) {
+            ((Application) applicationContext).registerActivityLifecycleCallbacks(new ActivityCallbacks());
+        }
+        applicationContext.registerComponentCallbacks(new TrimCallbacks());
+        sCallbacksRegistered = true;
+    }
+
+    private static Context unwrap(Context context) {
+        while (!(context instanceof Activity) && context instanceof ContextWrapper
+                && ((ContextWrapper) context).getBaseContext() != null) {
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return context;
+    }
+
+    private static void checkMainThread() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            throw new IllegalStateException("The inflation pool must be used from the main thread");
+        }
+    }
+
+    private static final class Pool implements AsyncLayoutInflater.OnInflateFinishedListener {
+
+        private final Context mContext;
+        private final ViewGroup mParent;
+        private final AsyncLayoutInflater mInflater;
+        private final ArrayDeque<View> mEditables = new ArrayDeque<>();
+        private final ArrayDeque<View> mMarquees = new ArrayDeque<>();
+        private int mPendingEditables;
+        private int mPendingMarquees;
+
+        private Pool(Context context) {
+            mContext = context;
+            mParent = new FrameLayout(context);
+            mInflater = new AsyncLayoutInflater(context);
+        }
+
+        private void prefetch(int count) {
+            while (mEditables.size() + mPendingEditables < count) {
+                mPendingEditables++;
+                mInflater.inflate(R.layout.layout_editable, mParent, this);
+            }
+            while (mMarquees.size() + mPendingMarquees < count) {
+                mPendingMarquees++;
+                mInflater.inflate(R.layout.layout_marquee, mParent, this);
+            }
+        }
+
+        private View poll(int layoutRes) {
+            return layoutRes == R.layout.layout_editable ? mEditables.poll() : mMarquees.poll();
+        }
+
+        private int size() {
+            return Math.max(mEditables.size(), mMarquees.size());
+        }
+
+        private void trimToSize(int size) {
+            while (mEditables.size() > size) {
+                mEditables.poll();
+            }
+            while (mMarquees.size() > size) {
+                mMarquees.poll();
+            }
+        }
+
+        @Override
+        public void onInflateFinished(View view, int resid, ViewGroup parent) {
+            if (resid == R.layout.layout_editable) {
+                mPendingEditables--;
+                if (sPools.get(mContext.getTheme()) == this && mEditables.size() < sCapacity) {
+                    mEditables.add(view);
+                }
+            }
+            else {
+                mPendingMarquees--;
+                if (sPools.get(mContext.getTheme()) == this && mMarquees.size() < sCapacity) {
+                    mMarquees.add(view);
+                }
+            }
+        }
+
+    }
+
+    private static final class TrimCallbacks implements ComponentCallbacks2 {
+
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+            clear();
+        }
+
+        @Override
+        public void onLowMemory() {
+            clear();
+        }
+
+    }
+
+    private static final class ActivityCallbacks implements Application.ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            Iterator<Pool> pools = sPools.values().iterator();
+            while (pools.hasNext()) {
+                if (unwrap(pools.next().mContext) == activity) {
+                    pools.remove();
+                }
+            }
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {}
+
+        @Override
+        public void onActivityStarted(Activity activity) {}
+
+        @Override
+        public void onActivityResumed(Activity activity) {}
+
+        @Override
+        public void onActivityPaused(Activity activity) {}
+
+        @Override
+        public void onActivityStopped(Activity activity) {}
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {}
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.Context;
+import android.support.design.widget.TextInputEditText;
+import android.util.AttributeSet;
+
+public class LabelledMarqueeInputEditText extends TextInputEditText {
+
+    interface OnBatchEditListener {
+
+        void onBeginBatchEdit();
+
+        void onEndBatchEdit();
+
+    }
+
+    private OnBatchEditListener mOnBatchEditListener;
+    private int mBatchEditDepth;
+
+    public LabelledMarqueeInputEditText(Context context) {
+        super(context);
+    }
+
+    public LabelledMarqueeInputEditText(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public LabelledMarqueeInputEditText(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    void setOnBatchEditListener(OnBatchEditListener onBatchEditListener) {
+        mOnBatchEditListener = onBatchEditListener;
+    }
+
+    boolean isInBatchEdit() {
+        return mBatchEditDepth > 0;
+    }
+
+    @Override
+    public void onBeginBatchEdit() {
+        super.onBeginBatchEdit();
+        if (mBatchEditDepth++ == 0 && mOnBatchEditListener != null) {
+            mOnBatchEditListener.onBeginBatchEdit();
+        }
+    }
+
+    @Override
+    public void onEndBatchEdit() {
+        super.onEndBatchEdit();
+        if (mBatchEditDepth > 0 && --mBatchEditDepth == 0 && mOnBatchEditListener != null) {
+            mOnBatchEditListener.onEndBatchEdit();
+        }
+    }
+
+}
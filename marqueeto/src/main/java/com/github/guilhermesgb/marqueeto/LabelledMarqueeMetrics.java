@@ -0,0 +1,91 @@
+package com.github.guilhermesgb.marqueeto;
+
+public final class LabelledMarqueeMetrics {
+
+    public static final int EVENT_INFLATION = 0;
+    public static final int EVENT_RELOAD = 1;
+    public static final int EVENT_RESTYLE = 2;
+    public static final int EVENT_MODE_TRANSITION = 3;
+    public static final int EVENT_REFLECTION_FALLBACK = 4;
+    public static final int EVENT_ICON_CREATION = 5;
+
+    private static final String[] EVENT_NAMES = {
+            "inflation", "reload", "restyle", "mode transition", "reflection fallback", "icon creation"
+    };
+
+    public interface Listener {
+
+        void onEvent(LabelledMarqueeEditText source, int event, long durationNanos);
+
+    }
+
+    private static final long[] sCounts = new long[EVENT_NAMES.length];
+    private static final long[] sDurations = new long[EVENT_NAMES.length];
+    private static volatile boolean sEnabled;
+    private static volatile Listener sListener;
+
+    private LabelledMarqueeMetrics() {}
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    public static synchronized long getCount(int event) {
+        return sCounts[checkEvent(event)];
+    }
+
+    public static synchronized long getTotalDurationNanos(int event) {
+        return sDurations[checkEvent(event)];
+    }
+
+    public static synchronized void reset() {
+        for (int event = 0; event < EVENT_NAMES.length; event++) {
+            sCounts[event] = 0;
+            sDurations[event] = 0;
+        }
+    }
+
+    public static String getEventName(int event) {
+        return EVENT_NAMES[checkEvent(event)];
+    }
+
+    static long start(Listener instanceListener) {
+        return sEnabled || instanceListener != null ? System.nanoTime() : 0;
+    }
+
+    static void end(LabelledMarqueeEditText source, Listener instanceListener, int event, long start) {
+        if (start == 0) {
+            return;
+        }
+        final long duration = System.nanoTime() - start;
+        if (instanceListener != null) {
+            instanceListener.onEvent(source, event, duration);
+        }
+        if (sEnabled) {
+            synchronized (LabelledMarqueeMetrics.class) {
+                sCounts[event]++;
+                sDurations[event] += duration;
+            }
+            final Listener listener = sListener;
+            if (listener != null) {
+                listener.onEvent(source, event, duration);
+            }
+        }
+    }
+
+    private static int checkEvent(int event) {
+        if (event < 0 || event >= EVENT_NAMES.length) {
+            throw new IllegalArgumentException("Unknown metrics event: " + event);
+        }
+        return event;
+    }
+
+}
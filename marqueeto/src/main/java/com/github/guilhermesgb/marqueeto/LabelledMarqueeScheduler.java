@@ -0,0 +1,234 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+public final class LabelledMarqueeScheduler {
+
+    public static final int POLICY_ALL = 0;
+    public static final int POLICY_FOCUSED_FIRST = 1;
+    public static final int POLICY_ROUND_ROBIN = 2;
+    public static final int UNLIMITED = 0;
+
+    private static final long FALLBACK_FRAME_DELAY = 16;
+    private static final long BLOCKED_RETRY_DELAY = 250;
+
+    private static final ArrayList<MarqueeAnimator> sAnimators = new ArrayList<>();
+    private static final ArrayList<MarqueeAnimator> sFinishedPasses = new ArrayList<>();
+    private static int sPolicy = POLICY_ALL;
+    private static int sMaxRunning = UNLIMITED;
+    private static Ticker sTicker;
+    private static boolean sFrameScheduled;
+    private static long sScheduledFrameTime;
+    private static WeakReference<View> sLastUnfocused;
+
+    private LabelledMarqueeScheduler() {}
+
+    public static void setPolicy(int policy, int maxRunning) {
+        if (policy != POLICY_ALL && policy != POLICY_FOCUSED_FIRST && policy != POLICY_ROUND_ROBIN) {
+            throw new IllegalArgumentException("Unknown marquee scheduling policy: " + policy);
+        }
+        if (maxRunning < 0) {
+            throw new IllegalArgumentException("Maximum number of running marquees must not be negative: "
+                    + maxRunning);
+        }
+        checkMainThread();
+        sPolicy = policy;
+        sMaxRunning = maxRunning;
+        scheduleFrame(0);
+    }
+
+    public static int getPolicy() {
+        return sPolicy;
+    }
+
+    public static int getMaxRunning() {
+        return sMaxRunning;
+    }
+
+    public static int getRegisteredCount() {
+        return sAnimators.size();
+    }
+
+    static void register(MarqueeAnimator animator, long delay) {
+        checkMainThread();
+        animator.mNextFrameTime = AnimationUtils.currentAnimationTimeMillis() + delay;
+        if (!sAnimators.contains(animator)) {
+            sAnimators.add(animator);
+        }
+        scheduleFrame(delay);
+    }
+
+    static void unregister(MarqueeAnimator animator) {
+        sAnimators.remove(animator);
+    }
+
+    static void setLastUnfocused(View host) {
+        sLastUnfocused = new WeakReference<>(host);
+    }
+
+    static void forget(View host) {
+        if (sLastUnfocused != null && sLastUnfocused.get() == host) {
+            sLastUnfocused = null;
+        }
+    }
+
+    private static void doFrame() {
+        sFrameScheduled = false;
+        sScheduledFrameTime = 0;
+        if (sAnimators.isEmpty()) {
+            return;
+        }
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        int running = 0;
+        for (int index = 0; index < sAnimators.size(); index++) {
+            if (sAnimators.get(index).isInPass()) {
+                running++;
+            }
+        }
+        if (sPolicy == POLICY_FOCUSED_FIRST) {
+            running = tickAnimators(now, running, true);
+        }
+        tickAnimators(now, running, false);
+        if (sPolicy == POLICY_ROUND_ROBIN) {
+            for (int index = 0; index < sFinishedPasses.size(); index++) {
+                MarqueeAnimator animator = sFinishedPasses.get(index);
+                if (sAnimators.remove(animator)) {
+                    sAnimators.add(animator);
+                }
+            }
+        }
+        sFinishedPasses.clear();
+        long nextFrameTime = Long.MAX_VALUE;
+        for (int index = 0; index < sAnimators.size(); index++) {
+            nextFrameTime = Math.min(nextFrameTime, sAnimators.get(index).mNextFrameTime);
+        }
+        if (nextFrameTime != Long.MAX_VALUE) {
+            scheduleFrame(Math.max(nextFrameTime - now, 0));
+        }
+    }
+
+    private static int tickAnimators(long now, int running, boolean preferredOnly) {
+        for (int index = 0; index < sAnimators.size(); index++) {
+            MarqueeAnimator animator = sAnimators.get(index);
+            if (sPolicy == POLICY_FOCUSED_FIRST && isPreferred(animator.getHost()) != preferredOnly) {
+                continue;
+            }
+            if (animator.mNextFrameTime > now) {
+                continue;
+            }
+            boolean wasInPass = animator.isInPass();
+            if (!wasInPass && sMaxRunning != UNLIMITED && running >= sMaxRunning) {
+                animator.mNextFrameTime = now + BLOCKED_RETRY_DELAY;
+                continue;
+            }
+            long delay = animator.tick(now);
+            if (delay < 0) {
+                sAnimators.remove(index--);
+                if (wasInPass) {
+                    running--;
+                }
+                continue;
+            }
+            animator.mNextFrameTime = now + delay;
+            if (!wasInPass && animator.isInPass()) {
+                running++;
+            }
+            else if (wasInPass && !animator.isInPass()) {
+                running--;
+                sFinishedPasses.add(animator);
+            }
+        }
+        return running;
+    }
+
+    private static boolean isPreferred(View host) {
+        return host.isSelected() || (sLastUnfocused != null && sLastUnfocused.get() == host);
+    }
+
+    private static void scheduleFrame(long delay) {
+        if (sAnimators.isEmpty()) {
+            return;
+        }
+        long frameTime = AnimationUtils.currentAnimationTimeMillis() + delay;
+        if (sFrameScheduled) {
+            if (frameTime >= sScheduledFrameTime) {
+                return;
+            }
+            sTicker.removeFrame();
+        }
+        if (sTicker == null) {
+            sTicker = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                    ? new ChoreographerTicker() : new HandlerTicker();
+        }
+        sFrameScheduled = true;
+        sScheduledFrameTime = frameTime;
+        sTicker.postFrame(delay);
+    }
+
+    private static void checkMainThread() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            throw new IllegalStateException("Marquees must be scheduled from the main thread");
+        }
+    }
+
+    private interface Ticker {
+
+        void postFrame(long delay);
+
+        void removeFrame();
+
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class ChoreographerTicker implements Ticker, Choreographer.FrameCallback {
+
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        @Override
+        public void postFrame(long delay) {
+            mChoreographer.postFrameCallbackDelayed(this, delay);
+        }
+
+        @Override
+        public void removeFrame() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            LabelledMarqueeScheduler.doFrame();
+        }
+
+    }
+
+    private static final class HandlerTicker implements Ticker, Runnable {
+
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void postFrame(long delay) {
+            mHandler.postDelayed(this, Math.max(delay, FALLBACK_FRAME_DELAY));
+        }
+
+        @Override
+        public void removeFrame() {
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            LabelledMarqueeScheduler.doFrame();
+        }
+
+    }
+
+}
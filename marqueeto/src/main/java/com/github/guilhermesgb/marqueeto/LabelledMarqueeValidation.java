@@ -0,0 +1,143 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class LabelledMarqueeValidation {
+
+    private static final String TAG = LabelledMarqueeValidation.class.getSimpleName();
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    private static Executor sExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+
+    public interface Listener {
+
+        void onValidated(boolean valid);
+
+    }
+
+    private LabelledMarqueeValidation() {}
+
+    public static void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("LabelledMarqueeValidation doesn't accept a null executor.");
+        }
+        sExecutor = executor;
+    }
+
+    public static void validate(Listener listener, List<LabelledMarqueeEditText> fields) {
+        validate(listener, fields.toArray(new LabelledMarqueeEditText[fields.size()]));
+    }
+
+    public static void validate(Listener listener, LabelledMarqueeEditText... fields) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            throw new IllegalStateException("Validation must be started from the main thread");
+        }
+        final Batch batch = new Batch(listener, fields);
+        if (fields.length == 0) {
+            sMainHandler.post(batch);
+            return;
+        }
+        for (int index = 0; index < fields.length; index++) {
+            final LabelledMarqueeEditText field = fields[index];
+            final LabelledMarqueeValidator[] validators = field.getValidators();
+            if (validators.length == 0) {
+                batch.mGenerations[index] = field.getValidationGeneration();
+                batch.finish();
+                continue;
+            }
+            batch.mGenerations[index] = field.nextValidationGeneration();
+            batch.mValidated[index] = true;
+            sExecutor.execute(new Task(batch, index, field.getText(), validators));
+        }
+    }
+
+    private static final class Task implements Runnable {
+
+        private final Batch mBatch;
+        private final int mIndex;
+        private final String mValue;
+        private final LabelledMarqueeValidator[] mValidators;
+
+        private Task(Batch batch, int index, String value, LabelledMarqueeValidator[] validators) {
+            mBatch = batch;
+            mIndex = index;
+            mValue = value;
+            mValidators = validators;
+        }
+
+        @Override
+        public void run() {
+            for (LabelledMarqueeValidator validator : mValidators) {
+                try {
+                    final String error = validator.validate(mValue);
+                    if (error != null) {
+                        mBatch.mErrors[mIndex] = error;
+                        break;
+                    }
+                }
+                catch (RuntimeException exception) {
+                    Log.d(TAG, "Validator failed, treating the value as invalid: " + exception.getMessage());
+                    mBatch.mErrors[mIndex] = exception.getMessage() != null
+                            ? exception.getMessage() : exception.getClass().getSimpleName();
+                    break;
+                }
+            }
+            mBatch.finish();
+        }
+
+    }
+
+    private static final class Batch implements Runnable {
+
+        private final Listener mListener;
+        private final LabelledMarqueeEditText[] mFields;
+        private final AtomicInteger mRemaining;
+        private final int[] mGenerations;
+        private final boolean[] mValidated;
+        private final String[] mErrors;
+
+        private Batch(Listener listener, LabelledMarqueeEditText[] fields) {
+            mListener = listener;
+            mFields = fields;
+            mRemaining = new AtomicInteger(fields.length);
+            mGenerations = new int[fields.length];
+            mValidated = new boolean[fields.length];
+            mErrors = new String[fields.length];
+        }
+
+        private void finish() {
+            if (mRemaining.decrementAndGet() == 0) {
+                sMainHandler.post(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean valid = true;
+            for (int index = 0; index < mFields.length; index++) {
+                final LabelledMarqueeEditText field = mFields[index];
+                if (field.getValidationGeneration() != mGenerations[index]) {
+                    valid = false;
+                    continue;
+                }
+                if (!mValidated[index]) {
+                    continue;
+                }
+                field.applyValidationResult(mErrors[index]);
+                valid &= mErrors[index] == null;
+            }
+            if (mListener != null) {
+                mListener.onValidated(valid);
+            }
+        }
+
+    }
+
+}
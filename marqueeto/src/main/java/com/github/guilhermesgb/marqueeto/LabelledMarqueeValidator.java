@@ -0,0 +1,7 @@
+package com.github.guilhermesgb.marqueeto;
+
+public interface LabelledMarqueeValidator {
+
+    String validate(String value);
+
+}
@@ -0,0 +1,52 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.text.TextUtils;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class LabelledMarqueeValidators {
+
+    private LabelledMarqueeValidators() {}
+
+    public static LabelledMarqueeValidator required(final String message) {
+        return new LabelledMarqueeValidator() {
+
+            @Override
+            public String validate(String value) {
+                return value == null || TextUtils.getTrimmedLength(value) == 0 ? message : null;
+            }
+
+        };
+    }
+
+    public static LabelledMarqueeValidator pattern(String regex, final String message) {
+        final Pattern pattern = Pattern.compile(regex);
+        return new LabelledMarqueeValidator() {
+
+            @Override
+            public String validate(String value) {
+                return value == null || value.isEmpty() || pattern.matcher(value).matches() ? null : message;
+            }
+
+        };
+    }
+
+    public static LabelledMarqueeValidator length(final int minLength, final int maxLength, final String message)
+            throws IllegalArgumentException {
+        if (minLength < 0 || maxLength < minLength) {
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "LabelledMarqueeValidators doesn't support these length bounds ([%d, %d]).", minLength, maxLength));
+        }
+        return new LabelledMarqueeValidator() {
+
+            @Override
+            public String validate(String value) {
+                final int length = value == null ? 0 : value.length();
+                return length == 0 || (length >= minLength && length <= maxLength) ? null : message;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.view.View;
+
+final class MarqueeAnimator {
+
+    static final int REPEAT_FOREVER = -1;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_WAITING = 1;
+    private static final int STATE_SCROLLING = 2;
+    private static final int STATE_HOLDING = 3;
+    private static final int STATE_PAUSED = 4;
+
+    interface Target {
+
+        View getHost();
+
+        int getScrollRange();
+
+        void onScrollChanged(int offset, boolean running);
+
+    }
+
+    private final Target mTarget;
+
+    private float mSpeed;
+    private int mStartDelay;
+    private int mRepeatLimit = REPEAT_FOREVER;
+    private int mFrameInterval;
+
+    private int mState = STATE_IDLE;
+    private float mOffset;
+    private int mRepeatCount;
+    private long mLastFrameTime;
+    long mNextFrameTime;
+
+    MarqueeAnimator(Target target) {
+        mTarget = target;
+    }
+
+    void setSpeed(float pixelsPerSecond) {
+        mSpeed = pixelsPerSecond;
+    }
+
+    void setStartDelay(int startDelay) {
+        mStartDelay = Math.max(startDelay, 0);
+    }
+
+    void setRepeatLimit(int repeatLimit) {
+        mRepeatLimit = repeatLimit;
+    }
+
+    void setMaxFps(int maxFps) {
+        mFrameInterval = maxFps > 0 ? 1000 / maxFps : 0;
+    }
+
+    View getHost() {
+        return mTarget.getHost();
+    }
+
+    boolean isRunning() {
+        return mState != STATE_IDLE && mState != STATE_PAUSED;
+    }
+
+    boolean isPaused() {
+        return mState == STATE_PAUSED;
+    }
+
+    boolean isInPass() {
+        return mState == STATE_SCROLLING || mState == STATE_HOLDING;
+    }
+
+    void start() {
+        stop();
+        if (mSpeed <= 0) {
+            return;
+        }
+        mRepeatCount = 0;
+        mState = STATE_WAITING;
+        LabelledMarqueeScheduler.register(this, mStartDelay);
+    }
+
+    void startPaused() {
+        stop();
+        if (mSpeed <= 0) {
+            return;
+        }
+        mRepeatCount = 0;
+        mState = STATE_PAUSED;
+    }
+
+    void pause() {
+        if (mState == STATE_IDLE || mState == STATE_PAUSED) {
+            return;
+        }
+        LabelledMarqueeScheduler.unregister(this);
+        mState = STATE_PAUSED;
+        mOffset = 0;
+        mTarget.onScrollChanged(0, false);
+    }
+
+    void resume() {
+        if (mState != STATE_PAUSED) {
+            return;
+        }
+        mState = STATE_WAITING;
+        LabelledMarqueeScheduler.register(this, mStartDelay);
+    }
+
+    void stop() {
+        LabelledMarqueeScheduler.unregister(this);
+        if (mState != STATE_IDLE || mOffset != 0) {
+            mState = STATE_IDLE;
+            mOffset = 0;
+            mTarget.onScrollChanged(0, false);
+        }
+    }
+
+    long tick(long now) {
+        switch (mState) {
+            case STATE_WAITING:
+                if (mTarget.getScrollRange() <= 0) {
+                    mState = STATE_IDLE;
+                    return -1;
+                }
+                mState = STATE_SCROLLING;
+                mLastFrameTime = now;
+                mTarget.onScrollChanged(0, true);
+                return mFrameInterval;
+            case STATE_SCROLLING:
+                final int range = mTarget.getScrollRange();
+                mOffset += mSpeed * (now - mLastFrameTime) / 1000f;
+                mLastFrameTime = now;
+                if (mOffset >= range) {
+                    mOffset = Math.max(range, 0);
+                    mState = STATE_HOLDING;
+                    mTarget.onScrollChanged((int) mOffset, true);
+                    return mStartDelay;
+                }
+                mTarget.onScrollChanged((int) mOffset, true);
+                return mFrameInterval;
+            case STATE_HOLDING:
+                mRepeatCount++;
+                mOffset = 0;
+                if (mRepeatLimit != REPEAT_FOREVER && mRepeatCount >= mRepeatLimit) {
+                    mState = STATE_IDLE;
+                    mTarget.onScrollChanged(0, false);
+                    return -1;
+                }
+                mState = STATE_WAITING;
+                mTarget.onScrollChanged(0, true);
+                return mStartDelay;
+            default:
+                return -1;
+        }
+    }
+
+}
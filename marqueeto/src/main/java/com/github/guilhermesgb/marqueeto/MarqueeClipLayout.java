@@ -0,0 +1,86 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.Context;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.ViewGroup;
+
+final class MarqueeClipLayout extends ViewGroup {
+
+    private boolean mScrolling;
+    private boolean mLeftEdgeFaded;
+    private boolean mRightEdgeFaded;
+
+    MarqueeClipLayout(Context context) {
+        super(context);
+        setHorizontalFadingEdgeEnabled(true);
+        setWillNotDraw(false);
+    }
+
+    void setScroll(float offset, boolean scrolling) {
+        if (getChildCount() == 0) {
+            return;
+        }
+        final View child = getChildAt(0);
+        if (scrolling != mScrolling) {
+            mScrolling = scrolling;
+            ViewCompat.setLayerType(child, scrolling
+                    ? ViewCompat.LAYER_TYPE_HARDWARE : ViewCompat.LAYER_TYPE_NONE, null);
+        }
+        ViewCompat.setTranslationX(child, -offset);
+        if (mLeftEdgeFaded != isLeftEdgeFaded() || mRightEdgeFaded != isRightEdgeFaded()) {
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height = 0;
+        if (getChildCount() > 0) {
+            final View child = getChildAt(0);
+            final int childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec, 0,
+                    child.getLayoutParams().height);
+            child.measure(MeasureSpec.makeMeasureSpec(2 * width, MeasureSpec.AT_MOST), childHeightMeasureSpec);
+            if (child.getMeasuredWidth() < width) {
+                child.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY), childHeightMeasureSpec);
+            }
+            height = child.getMeasuredHeight();
+        }
+        setMeasuredDimension(width, resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (getChildCount() > 0) {
+            final View child = getChildAt(0);
+            child.layout(0, 0, child.getMeasuredWidth(), child.getMeasuredHeight());
+        }
+    }
+
+    @Override
+    protected float getLeftFadingEdgeStrength() {
+        mLeftEdgeFaded = isLeftEdgeFaded();
+        return mLeftEdgeFaded ? 1f : 0f;
+    }
+
+    @Override
+    protected float getRightFadingEdgeStrength() {
+        mRightEdgeFaded = isRightEdgeFaded();
+        return mRightEdgeFaded ? 1f : 0f;
+    }
+
+    private boolean isLeftEdgeFaded() {
+        return getChildCount() > 0 && getChildAt(0).getVisibility() == VISIBLE
+                && ViewCompat.getTranslationX(getChildAt(0)) < 0;
+    }
+
+    private boolean isRightEdgeFaded() {
+        if (getChildCount() == 0 || getChildAt(0).getVisibility() != VISIBLE) {
+            return false;
+        }
+        final View child = getChildAt(0);
+        return child.getRight() + ViewCompat.getTranslationX(child) > getWidth();
+    }
+
+}
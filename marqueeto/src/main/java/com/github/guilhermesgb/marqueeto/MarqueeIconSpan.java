@@ -0,0 +1,41 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.text.style.ReplacementSpan;
+
+final class MarqueeIconSpan extends ReplacementSpan {
+
+    private final Drawable mDrawable;
+    private final int mSize;
+
+    MarqueeIconSpan(Drawable drawable, int size) {
+        mDrawable = drawable;
+        mSize = size;
+    }
+
+    Drawable getDrawable() {
+        return mDrawable;
+    }
+
+    @Override
+    public int getSize(Paint paint, CharSequence text, int start, int end, Paint.FontMetricsInt fontMetrics) {
+        if (fontMetrics != null) {
+            paint.getFontMetricsInt(fontMetrics);
+        }
+        return mSize;
+    }
+
+    @Override
+    public void draw(Canvas canvas, CharSequence text, int start, int end, float x,
+                     int top, int y, int bottom, Paint paint) {
+        float iconTop = y + (paint.ascent() + paint.descent()) / 2 - mSize / 2f;
+        mDrawable.setBounds(0, 0, mSize, mSize);
+        canvas.save();
+        canvas.translate(x, iconTop);
+        mDrawable.draw(canvas);
+        canvas.restore();
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.text.SpannableStringBuilder;
+
+final class MarqueeText implements CharSequence {
+
+    private final SpannableStringBuilder mPrefix = new SpannableStringBuilder();
+    private final SpannableStringBuilder mSuffix = new SpannableStringBuilder();
+    private CharSequence mText = "";
+    private CharSequence mIconCharacter;
+    private boolean mIconOnTheLeft;
+
+    void set(CharSequence text, CharSequence iconCharacter, CharSequence leftPadding, CharSequence rightPadding,
+             boolean iconOnTheLeft) {
+        mPrefix.clearSpans();
+        mPrefix.clear();
+        mSuffix.clearSpans();
+        mSuffix.clear();
+        if (iconCharacter != null && iconCharacter.length() > 0) {
+            if (iconOnTheLeft) {
+                mPrefix.append(leftPadding).append(iconCharacter).append(rightPadding);
+            }
+            else {
+                mSuffix.append(rightPadding).append(iconCharacter);
+            }
+        }
+        mText = text == null ? "" : text;
+        mIconCharacter = iconCharacter;
+        mIconOnTheLeft = iconOnTheLeft;
+    }
+
+    boolean isSet(CharSequence text, CharSequence iconCharacter, boolean iconOnTheLeft) {
+        return mText == (text == null ? "" : text) && mIconCharacter == iconCharacter
+                && mIconOnTheLeft == iconOnTheLeft;
+    }
+
+    int getTextStart() {
+        return mPrefix.length();
+    }
+
+    int getTextEnd() {
+        return mPrefix.length() + mText.length();
+    }
+
+    void appendTo(SpannableStringBuilder builder, int start, int end) {
+        int pieceStart = 0;
+        pieceStart = appendPiece(builder, mPrefix, pieceStart, start, end);
+        pieceStart = appendPiece(builder, mText, pieceStart, start, end);
+        appendPiece(builder, mSuffix, pieceStart, start, end);
+    }
+
+    @Override
+    public int length() {
+        return mPrefix.length() + mText.length() + mSuffix.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < mPrefix.length()) {
+            return mPrefix.charAt(index);
+        }
+        index -= mPrefix.length();
+        if (index < mText.length()) {
+            return mText.charAt(index);
+        }
+        return mSuffix.charAt(index - mText.length());
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        final SpannableStringBuilder builder = new SpannableStringBuilder();
+        appendTo(builder, start, end);
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    private static int appendPiece(SpannableStringBuilder builder, CharSequence piece, int pieceStart,
+                                   int start, int end) {
+        final int pieceEnd = pieceStart + piece.length();
+        final int from = Math.max(start, pieceStart);
+        final int to = Math.min(end, pieceEnd);
+        if (from < to) {
+            builder.append(piece, from - pieceStart, to - pieceStart);
+        }
+        return pieceEnd;
+    }
+
+}
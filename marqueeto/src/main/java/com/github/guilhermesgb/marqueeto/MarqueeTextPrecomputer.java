@@ -0,0 +1,53 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextPaint;
+
+final class MarqueeTextPrecomputer {
+
+    interface Callback {
+
+        void onPrecomputed(String text);
+
+    }
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private MarqueeTextPrecomputer() {}
+
+    static void precompute(final String text, final TextPaint paint, final float maxWidth, final int maxLength,
+                           final Callback callback) {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final int length = getPrefixLength(text, maxLength);
+                if (maxWidth > 0) {
+                    paint.breakText(text, 0, length, true, maxWidth, null);
+                }
+                else {
+                    paint.measureText(text, 0, length);
+                }
+                sMainHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        callback.onPrecomputed(text);
+                    }
+
+                });
+            }
+
+        });
+    }
+
+    static int getPrefixLength(CharSequence text, int maxLength) {
+        if (text.length() <= maxLength) {
+            return text.length();
+        }
+        return Character.isHighSurrogate(text.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.graphics.Rect;
+import android.text.Spanned;
+import android.text.method.TransformationMethod;
+import android.view.View;
+
+import java.lang.reflect.Array;
+
+final class PasswordMaskTransformationMethod implements TransformationMethod {
+
+    static final char DEFAULT_MASK_CHARACTER = '*';
+
+    private char mMaskCharacter = DEFAULT_MASK_CHARACTER;
+    private int mMaskStart;
+    private int mMaskEnd;
+
+    char getMaskCharacter() {
+        return mMaskCharacter;
+    }
+
+    void setMaskCharacter(char maskCharacter) {
+        mMaskCharacter = maskCharacter;
+    }
+
+    void setMaskedRegion(int start, int end) {
+        mMaskStart = start;
+        mMaskEnd = end;
+    }
+
+    CharSequence mask(CharSequence source) {
+        if (source == null) {
+            return null;
+        }
+        return new MaskedCharSequence(source, 0, source.length(), mMaskCharacter);
+    }
+
+    @Override
+    public CharSequence getTransformation(CharSequence source, View view) {
+        int end = Math.min(mMaskEnd, source.length());
+        int start = Math.min(mMaskStart, end);
+        return new MaskedCharSequence(source, start, end, mMaskCharacter);
+    }
+
+    @Override
+    public void onFocusChanged(View view, CharSequence sourceText, boolean focused,
+                               int direction, Rect previouslyFocusedRect) {}
+
+    private static final class MaskedCharSequence implements CharSequence, Spanned {
+
+        private final CharSequence mSource;
+        private final int mMaskStart;
+        private final int mMaskEnd;
+        private final char mMaskCharacter;
+
+        private MaskedCharSequence(CharSequence source, int maskStart, int maskEnd, char maskCharacter) {
+            mSource = source;
+            mMaskStart = maskStart;
+            mMaskEnd = maskEnd;
+            mMaskCharacter = maskCharacter;
+        }
+
+        @Override
+        public int length() {
+            return mSource.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= mMaskStart && index < mMaskEnd) {
+                return mMaskCharacter;
+            }
+            return mSource.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            char[] characters = new char[end - start];
+            for (int index = start; index < end; index++) {
+                characters[index - start] = charAt(index);
+            }
+            return new String(characters);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T[] getSpans(int start, int end, Class<T> type) {
+            if (mSource instanceof Spanned) {
+                return ((Spanned) mSource).getSpans(start, end, type);
+            }
+            return (T[]) Array.newInstance(type, 0);
+        }
+
+        @Override
+        public int getSpanStart(Object tag) {
+            return mSource instanceof Spanned ? ((Spanned) mSource).getSpanStart(tag) : -1;
+        }
+
+        @Override
+        public int getSpanEnd(Object tag) {
+            return mSource instanceof Spanned ? ((Spanned) mSource).getSpanEnd(tag) : -1;
+        }
+
+        @Override
+        public int getSpanFlags(Object tag) {
+            return mSource instanceof Spanned ? ((Spanned) mSource).getSpanFlags(tag) : 0;
+        }
+
+        @Override
+        public int nextSpanTransition(int start, int limit, Class type) {
+            return mSource instanceof Spanned ? ((Spanned) mSource).nextSpanTransition(start, limit, type) : limit;
+        }
+
+    }
+
+}
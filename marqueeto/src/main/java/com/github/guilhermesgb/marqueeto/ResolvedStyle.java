@@ -0,0 +1,146 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.support.v4.content.ContextCompat;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import android.view.ContextThemeWrapper;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+final class ResolvedStyle {
+
+    static final int OVERRIDE_BASE_COLOR = 1;
+    static final int OVERRIDE_HIGHLIGHT_COLOR = 1 << 1;
+    static final int OVERRIDE_ICON_COLOR = 1 << 2;
+    static final int OVERRIDE_ERROR_COLOR = 1 << 3;
+
+    private static final int[] THEME_ATTRIBUTES = new int[]{
+            R.attr.baseColor, R.attr.highlightColor, R.attr.iconColor, R.attr.errorColor
+    };
+
+    private static final WeakHashMap<Resources.Theme, SparseArray<Entry>> sCache = new WeakHashMap<>();
+
+    final int baseColor;
+    final int highlightColor;
+    final int iconColor;
+    final int errorColor;
+    final int cursorColor;
+    final ColorStateList defaultLabelColor;
+    final ColorStateList focusedLabelColor;
+    final ColorStateList underlineColor;
+
+    private ResolvedStyle(int baseColor, int highlightColor, int iconColor, int errorColor) {
+        this.baseColor = baseColor;
+        this.highlightColor = highlightColor;
+        this.iconColor = iconColor;
+        this.errorColor = errorColor;
+        this.cursorColor = highlightColor;
+        this.defaultLabelColor = ColorStateList.valueOf(baseColor);
+        this.focusedLabelColor = ColorStateList.valueOf(highlightColor);
+        this.underlineColor = new ColorStateList(new int[][]{
+                new int[]{android.R.attr.state_focused}, new int[0]
+        }, new int[]{highlightColor, baseColor});
+    }
+
+    ResolvedStyle override(int overrideMask, int[] overrideColors) {
+        if (overrideMask == 0) {
+            return this;
+        }
+        return new ResolvedStyle(
+                (overrideMask & OVERRIDE_BASE_COLOR) != 0 ? overrideColors[0] : baseColor,
+                (overrideMask & OVERRIDE_HIGHLIGHT_COLOR) != 0 ? overrideColors[1] : highlightColor,
+                (overrideMask & OVERRIDE_ICON_COLOR) != 0 ? overrideColors[2] : iconColor,
+                (overrideMask & OVERRIDE_ERROR_COLOR) != 0 ? overrideColors[3] : errorColor);
+    }
+
+    static synchronized ResolvedStyle obtain(Context context, int customStyle) {
+        Entry entry = obtainEntry(context, customStyle);
+        if (entry.style == null) {
+            entry.style = resolve(obtainThemedContext(context, customStyle, entry));
+        }
+        return entry.style;
+    }
+
+    static synchronized Context obtainThemedContext(Context context, int customStyle) {
+        return obtainThemedContext(context, customStyle, obtainEntry(context, customStyle));
+    }
+
+    private static Entry obtainEntry(Context context, int customStyle) {
+        Resources.Theme theme = context.getTheme();
+        SparseArray<Entry> entries = sCache.get(theme);
+        if (entries == null) {
+            entries = new SparseArray<>();
+            sCache.put(theme, entries);
+        }
+        Configuration configuration = context.getResources().getConfiguration();
+        Entry entry = entries.get(customStyle);
+        if (entry == null || !entry.configuration.equals(configuration)) {
+            entry = new Entry(new Configuration(configuration));
+            entries.put(customStyle, entry);
+        }
+        return entry;
+    }
+
+    private static Context obtainThemedContext(Context context, int customStyle, Entry entry) {
+        Context themedContext = entry.themedContext == null ? null : entry.themedContext.get();
+        if (themedContext == null) {
+            themedContext = new ContextThemeWrapper(context, R.style.LabelledMarqueeEditTextTheme);
+            if (customStyle != -1) {
+                themedContext.getTheme().applyStyle(customStyle, true);
+            }
+            entry.themedContext = new WeakReference<>(themedContext);
+        }
+        return themedContext;
+    }
+
+    private static ResolvedStyle resolve(Context themedContext) {
+        final TypedArray themeAttributes = themedContext.obtainStyledAttributes(THEME_ATTRIBUTES);
+        TypedValue typedValue = new TypedValue();
+        int baseColor, highlightColor, iconColor, errorColor;
+        if (themeAttributes.getValue(0, typedValue)) {
+            baseColor = typedValue.data;
+        }
+        else {
+            baseColor = ContextCompat.getColor(themedContext, android.R.color.black);
+        }
+        if (themeAttributes.getValue(1, typedValue)) {
+            highlightColor = typedValue.data;
+        }
+        else {
+            highlightColor = ContextCompat.getColor(themedContext, android.R.color.black);
+        }
+        if (themeAttributes.getValue(2, typedValue)) {
+            iconColor = typedValue.data;
+        }
+        else {
+            iconColor = baseColor;
+        }
+        if (themeAttributes.getValue(3, typedValue)) {
+            errorColor = typedValue.data;
+        }
+        else {
+            errorColor = highlightColor;
+        }
+        themeAttributes.recycle();
+        return new ResolvedStyle(baseColor, highlightColor, iconColor, errorColor);
+    }
+
+    private static final class Entry {
+
+        private final Configuration configuration;
+        private ResolvedStyle style;
+        private WeakReference<Context> themedContext;
+
+        private Entry(Configuration configuration) {
+            this.configuration = configuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
+
+import java.util.ArrayList;
+
+final class TextChangeDispatcher implements TextWatcher, Runnable,
+        LabelledMarqueeInputEditText.OnBatchEditListener {
+
+    private final LabelledMarqueeEditText mOwner;
+    private final ArrayList<Subscription> mSubscriptions = new ArrayList<>();
+
+    private long mVersion;
+    private long mLastChangeTime;
+    private boolean mInBatchEdit;
+    private boolean mFlushScheduled;
+    private long mMinimumWindow;
+
+    TextChangeDispatcher(LabelledMarqueeEditText owner) {
+        mOwner = owner;
+    }
+
+    void add(LabelledMarqueeEditText.OnValueChangeListener listener, int delivery, long windowMillis) {
+        remove(listener);
+        Subscription subscription = new Subscription(listener, delivery, windowMillis);
+        subscription.deliveredVersion = mVersion;
+        subscription.deliveredValue = mOwner.getText();
+        mSubscriptions.add(subscription);
+        updateMinimumWindow();
+    }
+
+    void remove(LabelledMarqueeEditText.OnValueChangeListener listener) {
+        for (int index = 0; index < mSubscriptions.size(); index++) {
+            if (mSubscriptions.get(index).listener == listener) {
+                mSubscriptions.remove(index);
+                updateMinimumWindow();
+                return;
+            }
+        }
+    }
+
+    long getVersion() {
+        return mVersion;
+    }
+
+    void clear() {
+        mSubscriptions.clear();
+        updateMinimumWindow();
+        mOwner.removeCallbacks(this);
+        mFlushScheduled = false;
+    }
+
+    private void updateMinimumWindow() {
+        mMinimumWindow = Long.MAX_VALUE;
+        for (int index = 0; index < mSubscriptions.size(); index++) {
+            final Subscription subscription = mSubscriptions.get(index);
+            mMinimumWindow = Math.min(mMinimumWindow,
+                    subscription.delivery == LabelledMarqueeEditText.DELIVERY_IMMEDIATE ? 0 : subscription.windowMillis);
+        }
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence sequence, int start, int count, int after) {}
+
+    @Override
+    public void onTextChanged(CharSequence sequence, int start, int before, int count) {}
+
+    @Override
+    public void afterTextChanged(Editable sequence) {
+        mVersion++;
+        mLastChangeTime = SystemClock.uptimeMillis();
+        if (!mInBatchEdit) {
+            schedule(mMinimumWindow);
+        }
+    }
+
+    @Override
+    public void onBeginBatchEdit() {
+        mInBatchEdit = true;
+    }
+
+    @Override
+    public void onEndBatchEdit() {
+        mInBatchEdit = false;
+        schedule(mMinimumWindow);
+    }
+
+    @Override
+    public void run() {
+        mFlushScheduled = false;
+        if (mInBatchEdit || mSubscriptions.isEmpty()) {
+            return;
+        }
+        final long now = SystemClock.uptimeMillis();
+        final long version = mVersion;
+        String value = null;
+        long nextFlush = Long.MAX_VALUE;
+        for (int index = 0; index < mSubscriptions.size(); index++) {
+            final Subscription subscription = mSubscriptions.get(index);
+            if (subscription.deliveredVersion == version) {
+                continue;
+            }
+            long wait = 0;
+            if (subscription.delivery == LabelledMarqueeEditText.DELIVERY_DEBOUNCE) {
+                wait = mLastChangeTime + subscription.windowMillis - now;
+            }
+            else if (subscription.delivery == LabelledMarqueeEditText.DELIVERY_THROTTLE) {
+                wait = subscription.deliveredTime + subscription.windowMillis - now;
+            }
+            if (wait > 0) {
+                nextFlush = Math.min(nextFlush, wait);
+                continue;
+            }
+            if (value == null) {
+                value = mOwner.getText();
+            }
+            subscription.deliveredVersion = version;
+            subscription.deliveredTime = now;
+            if (!TextUtils.equals(value, subscription.deliveredValue)) {
+                subscription.deliveredValue = value;
+                subscription.listener.onValueChanged(mOwner, value);
+                if (mVersion != version) {
+                    return;
+                }
+            }
+        }
+        if (nextFlush != Long.MAX_VALUE) {
+            schedule(nextFlush);
+        }
+    }
+
+    private void schedule(long delay) {
+        if (mSubscriptions.isEmpty()) {
+            return;
+        }
+        if (mFlushScheduled) {
+            if (delay > 0) {
+                return;
+            }
+            mOwner.removeCallbacks(this);
+        }
+        mFlushScheduled = true;
+        if (delay > 0) {
+            mOwner.postDelayed(this, delay);
+        }
+        else {
+            mOwner.post(this);
+        }
+    }
+
+    private static final class Subscription {
+
+        private final LabelledMarqueeEditText.OnValueChangeListener listener;
+        private final int delivery;
+        private final long windowMillis;
+        private long deliveredVersion;
+        private long deliveredTime;
+        private String deliveredValue;
+
+        private Subscription(LabelledMarqueeEditText.OnValueChangeListener listener, int delivery,
+                             long windowMillis) {
+            this.listener = listener;
+            this.delivery = delivery;
+            this.windowMillis = windowMillis;
+        }
+
+    }
+
+}
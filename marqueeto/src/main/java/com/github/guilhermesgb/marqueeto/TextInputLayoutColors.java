@@ -0,0 +1,67 @@
+package com.github.guilhermesgb.marqueeto;
+
+import android.content.res.ColorStateList;
+import android.support.design.widget.TextInputLayout;
+import android.util.Log;
+import android.widget.TextView;
+
+import java.lang.reflect.Field;
+
+final class TextInputLayoutColors {
+
+    private static final String TAG = TextInputLayoutColors.class.getSimpleName();
+
+    private static boolean sFieldsResolved = false;
+    private static Field sDefaultTextColorField;
+    private static Field sFocusedTextColorField;
+    private static Field sErrorViewField;
+
+    private TextInputLayoutColors() {}
+
+    static void apply(TextInputLayout textInputLayout, ColorStateList defaultLabelColor,
+                      ColorStateList focusedLabelColor, int errorColor) {
+        resolveFields();
+        try {
+            if (sDefaultTextColorField != null) {
+                sDefaultTextColorField.set(textInputLayout, defaultLabelColor);
+            }
+            if (sFocusedTextColorField != null) {
+                sFocusedTextColorField.set(textInputLayout, focusedLabelColor);
+            }
+            if (sErrorViewField != null) {
+                TextView errorView = (TextView) sErrorViewField.get(textInputLayout);
+                if (errorView != null) {
+                    errorView.setTextColor(errorColor);
+                }
+            }
+        }
+        catch (IllegalAccessException exception) {
+            Log.d(TAG, "Could not override TextInputLayout's colors via reflection: "
+                    + exception.getMessage());
+        }
+        textInputLayout.refreshDrawableState();
+    }
+
+    private static synchronized void resolveFields() {
+        if (sFieldsResolved) {
+            return;
+        }
+        sDefaultTextColorField = findField("mDefaultTextColor");
+        sFocusedTextColorField = findField("mFocusedTextColor");
+        sErrorViewField = findField("mErrorView");
+        sFieldsResolved = true;
+    }
+
+    private static Field findField(String name) {
+        try {
+            Field field = TextInputLayout.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        }
+        catch (NoSuchFieldException exception) {
+            Log.d(TAG, "TextInputLayout has no field named " + name + ", its color won't follow custom styles.");
+            return null;
+        }
+    }
+
+}